@@ -0,0 +1,59 @@
+package bench;
+
+import maze.Maze;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Mazes for the benchmarks: the shipped maps by name, or "synthetic-N" for
+// a generated N x N maze.
+final class BenchmarkMazes {
+    // relative to the directory the benchmarks are started from
+    private static final String MAPS_DIR = System.getProperty("maps.dir", "src/map");
+
+    private BenchmarkMazes() {
+    }
+
+    static Maze load(String name) throws IOException {
+        if (name.startsWith("synthetic-"))
+            return synthetic(Integer.parseInt(name.substring("synthetic-".length())), 231L);
+        return Maze.load(Paths.get(MAPS_DIR, name + ".txt"));
+    }
+
+    // Walled border, a pillar on every other cell and 20% random walls, with
+    // costs 1-10 like the shipped maps. Row 1 and the last open column are
+    // kept clear so the goal is always reachable.
+    static Maze synthetic(int size, long seed) {
+        Random rnd = new Random(seed);
+        List<String> lines = new ArrayList<>(size);
+        StringBuilder line = new StringBuilder();
+
+        for (int r = 0; r < size; r++) {
+            line.setLength(0);
+            for (int c = 0; c < size; c++) {
+                boolean border = r == 0 || c == 0 || r == size - 1 || c == size - 1;
+                boolean corridor = r == 1 || c == size - 2;
+                boolean pillar = r % 2 == 0 && c % 2 == 0;
+
+                if (r == 1 && c == 1)
+                    line.append('S');
+                else if (r == size - 2 && c == size - 2)
+                    line.append('G');
+                else if (border || (!corridor && (pillar || rnd.nextInt(100) < 20)))
+                    line.append('#');
+                else
+                    line.append('"').append(1 + rnd.nextInt(10)).append('"');
+            }
+            lines.add(line.toString());
+        }
+
+        try {
+            return maze.MazeParser.parse(lines);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
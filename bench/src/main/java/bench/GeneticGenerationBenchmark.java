@@ -0,0 +1,57 @@
+package bench;
+
+import maze.Maze;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.GAConfig;
+import pathfinder.GeneticAlgorithmVisualizer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// One GA generation (scoring, selection and breeding) per invocation. Every
+// iteration starts again from the same seeded population so iterations see
+// comparable generations.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GeneticGenerationBenchmark {
+    @Param({ "m30_30", "m50_50", "m100_100" })
+    public String map;
+
+    // 0 for every available processor
+    @Param({ "1", "0" })
+    public int parallelism;
+
+    // chromosomes per generation, see GAConfig
+    @Param({ "5000" })
+    public int population;
+
+    private Maze maze;
+    private GeneticAlgorithmVisualizer ga;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        maze = BenchmarkMazes.load(map);
+    }
+
+    @Setup(Level.Iteration)
+    public void createPopulation() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        GAConfig config = new GAConfig();
+        config.set("population", String.valueOf(population));
+        ga = new GeneticAlgorithmVisualizer(maze, 231L, threads, config);
+        ga.setLogging(false);
+    }
+
+    @Benchmark
+    public int generation() {
+        // a stagnant run stops evolving, start it over instead of timing no-ops
+        if (ga.isFinished())
+            createPopulation();
+        ga.nextStep();
+        return ga.getTotalCost();
+    }
+}
@@ -0,0 +1,52 @@
+package bench;
+
+import maze.Maze;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.RouteService;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One query between random open cells per invocation, against a service
+// shared by every benchmark thread. Run with -t N for concurrent queries.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteServiceBenchmark {
+    @Param({ "m100_100", "synthetic-500", "synthetic-2000" })
+    public String map;
+
+    private RouteService service;
+    private int[] openCells;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Maze maze = BenchmarkMazes.load(map);
+        service = new RouteService(maze);
+
+        int count = 0;
+        int[] open = new int[maze.cellCount()];
+        for (int index = 0; index < maze.cellCount(); index++) {
+            if (!maze.isWall(index))
+                open[count++] = index;
+        }
+        openCells = Arrays.copyOf(open, count);
+    }
+
+    @State(Scope.Thread)
+    public static class Queries {
+        final SplittableRandom random = new SplittableRandom(231L);
+    }
+
+    @Benchmark
+    public int query(Queries queries) {
+        int start = openCells[queries.random.nextInt(openCells.length)];
+        int goal = openCells[queries.random.nextInt(openCells.length)];
+        return service.route(start, goal).cost();
+    }
+}
@@ -0,0 +1,42 @@
+package bench;
+
+import maze.Maze;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.AnimatablePathfinder;
+import pathfinder.Pathfinders;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// One full search per invocation, from constructing the engine to the
+// finished path. Throughput plus sampled latency for the percentiles, run
+// with -prof gc for the allocation rate.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({ "m15_15", "m50_50", "m100_100", "synthetic-500", "synthetic-2000" })
+    public String map;
+
+    @Param({ "dijkstra", "dijkstra-bucket", "astar", "greedy" })
+    public String algorithm;
+
+    private Maze maze;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        maze = BenchmarkMazes.load(map);
+    }
+
+    @Benchmark
+    public int solve() {
+        AnimatablePathfinder solver = Pathfinders.create(algorithm, maze);
+        while (!solver.isFinished()) {
+            solver.nextStep();
+        }
+        return solver.getTotalCost();
+    }
+}
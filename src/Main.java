@@ -1,43 +1,38 @@
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.swing.SwingUtilities;
 
 import maze.Maze;
+import maze.MazeParser;
+import batch.BatchSolver;
 import display.MazeAnimatorApp;
 
 public class Main {
     public static void main(String[] args) {
-        Scanner sc = new Scanner(System.in);
-        ArrayList<String> lines = new ArrayList<>();
-        int index = 0;
-
-        System.out.println("Please input the maze map (Start input):");
-
-        if (sc.hasNextLine()) {
-            lines.add(sc.nextLine());
+        if (args.length > 0 && args[0].equals("--headless")) {
+            BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
         }
 
-        do {
-            if (!sc.hasNextLine())
-                break;
-            String line = sc.nextLine();
-            lines.add(line);
-            index++;
-        } while (index < lines.size() && lines.get(index).compareTo(lines.get(0)) != 0);
-
-        if (lines.size() <= 1) {
-            System.out.println("Error: No maze input detected.");
-            sc.close();
+        Maze maze;
+
+        try {
+            if (args.length > 0) {
+                maze = Maze.load(Paths.get(args[0]));
+            } else {
+                System.out.println("Please input the maze map (Start input):");
+                maze = MazeParser.parseUntilClosingBorder(Channels.newChannel(System.in));
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
             return;
         }
 
-        Maze maze = new Maze(lines);
-
         System.out.println("Map loaded successfully. Launching GUI...");
         SwingUtilities.invokeLater(() -> {
             new MazeAnimatorApp(maze);
         });
-
-        sc.close();
     }
 }
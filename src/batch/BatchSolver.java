@@ -0,0 +1,364 @@
+package batch;
+
+import maze.Maze;
+import pathfinder.AStarAnimatorWrapper;
+import pathfinder.AnimatablePathfinder;
+import pathfinder.GAConfig;
+import pathfinder.GeneticAlgorithmVisualizer;
+import pathfinder.IslandGeneticAlgorithm;
+import pathfinder.LandmarkHeuristic;
+import pathfinder.Pathfinders;
+import pathfinder.SearchTrace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Runs solvers to completion without Swing and prints one result row per
+// map and algorithm, as CSV or as JSON lines.
+//
+//   java -cp bin batch.BatchSolver [--algo dijkstra,astar] [--format csv|json]
+//                                  [--max-steps N] [--save-landmarks]
+//                                  [--seed N] [--ga-config FILE] [--ga KEY=VALUE[,VALUE...]]...
+//                                  [--record DIR] <map file | map directory>...
+//
+// With --save-landmarks astar-alt keeps its landmark table next to each map
+// and reuses it on later runs.
+//
+// --ga-config loads GA settings from a file (see GAConfig) and --ga
+// overrides one of them, for ga and ga-islands. A --ga setting with several
+// values is a sweep: the GA runs once per combination of swept values and
+// its rows are labelled like ga[population=1000;mutation-rate=0.2]. --seed fixes the GA's random
+// numbers so the runs of a sweep can be compared.
+//
+// --record writes every run to DIR as <map>-<algorithm>.mtrace, a
+// SearchTrace the animator can replay. Times then include the recording.
+public class BatchSolver {
+    private static final List<String> DEFAULT_ALGORITHMS = Arrays.asList("dijkstra", "astar", "greedy");
+
+    private final List<String> algorithms;
+    private final boolean json;
+    private final long maxSteps;
+    private final PrintStream out;
+    private boolean saveLandmarks = false;
+    private Map<String, GAConfig> gaVariants = Collections.singletonMap("", new GAConfig());
+    private Long seed = null;
+    private Path recordDir = null;
+
+    public BatchSolver(List<String> algorithms, boolean json, long maxSteps, PrintStream out) {
+        this.algorithms = algorithms;
+        this.json = json;
+        this.maxSteps = maxSteps;
+        this.out = out;
+    }
+
+    public void setSaveLandmarks(boolean saveLandmarks) {
+        this.saveLandmarks = saveLandmarks;
+    }
+
+    // GA settings by the label suffix their result rows get, "" for a single run
+    public void setGaVariants(Map<String, GAConfig> gaVariants) {
+        this.gaVariants = gaVariants;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setRecordDir(Path recordDir) {
+        this.recordDir = recordDir;
+    }
+
+    public static void main(String[] args) {
+        List<String> algorithms = DEFAULT_ALGORITHMS;
+        String format = "csv";
+        long maxSteps = Long.MAX_VALUE;
+        boolean saveLandmarks = false;
+        Long seed = null;
+        Path gaConfigFile = null;
+        List<String> gaSettings = new ArrayList<>();
+        Path recordDir = null;
+        Map<String, GAConfig> gaVariants;
+        List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--algo")) {
+                    algorithms = Arrays.asList(value(args, ++i, arg).split(","));
+                } else if (arg.equals("--format")) {
+                    format = value(args, ++i, arg);
+                } else if (arg.equals("--max-steps")) {
+                    maxSteps = Long.parseLong(value(args, ++i, arg));
+                } else if (arg.equals("--save-landmarks")) {
+                    saveLandmarks = true;
+                } else if (arg.equals("--seed")) {
+                    seed = Long.parseLong(value(args, ++i, arg));
+                } else if (arg.equals("--ga-config")) {
+                    gaConfigFile = Paths.get(value(args, ++i, arg));
+                } else if (arg.equals("--ga")) {
+                    gaSettings.add(value(args, ++i, arg));
+                } else if (arg.equals("--record")) {
+                    recordDir = Paths.get(value(args, ++i, arg));
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                } else {
+                    inputs.add(Paths.get(arg));
+                }
+            }
+
+            if (!format.equals("csv") && !format.equals("json"))
+                throw new IllegalArgumentException("Unknown format '" + format + "', expected csv or json");
+            for (String algorithm : algorithms) {
+                if (!Pathfinders.names().contains(algorithm))
+                    throw new IllegalArgumentException("Unknown algorithm '" + algorithm + "', expected one of " + Pathfinders.names());
+            }
+            if (inputs.isEmpty())
+                throw new IllegalArgumentException("No map given");
+
+            GAConfig base = new GAConfig();
+            if (gaConfigFile != null) {
+                try {
+                    base = GAConfig.load(gaConfigFile);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot load GA settings from " + e.getMessage());
+                }
+            }
+            gaVariants = sweep(base, gaSettings);
+            if (recordDir != null && !Files.isDirectory(recordDir))
+                throw new IllegalArgumentException("--record expects a directory, got '" + recordDir + "'");
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: BatchSolver [--algo " + String.join(",", Pathfinders.names())
+                    + "] [--format csv|json] [--max-steps N] [--save-landmarks] [--seed N] [--ga-config FILE]"
+                    + " [--ga KEY=VALUE[,VALUE...]]... [--record DIR] <map file | map directory>...");
+            System.exit(1);
+            return;
+        }
+
+        BatchSolver solver = new BatchSolver(algorithms, format.equals("json"), maxSteps, System.out);
+        solver.setSaveLandmarks(saveLandmarks);
+        solver.setGaVariants(gaVariants);
+        if (seed != null)
+            solver.setSeed(seed);
+        solver.setRecordDir(recordDir);
+        solver.run(inputs);
+    }
+
+    // one config per combination of the settings' values, labelled by the
+    // swept ones
+    private static Map<String, GAConfig> sweep(GAConfig base, List<String> settings) {
+        Map<String, GAConfig> variants = new LinkedHashMap<>();
+        variants.put("", base);
+        for (String setting : settings) {
+            int equals = setting.indexOf('=');
+            if (equals < 0)
+                throw new IllegalArgumentException("--ga expects KEY=VALUE, got '" + setting + "'");
+            String key = setting.substring(0, equals).trim();
+            String[] values = setting.substring(equals + 1).split(",");
+
+            Map<String, GAConfig> next = new LinkedHashMap<>();
+            for (Map.Entry<String, GAConfig> variant : variants.entrySet()) {
+                for (String value : values) {
+                    GAConfig config = variant.getValue().copy();
+                    config.set(key, value);
+                    String label = variant.getKey();
+                    if (values.length > 1)
+                        label += (label.isEmpty() ? "" : ";") + key + "=" + value.trim();
+                    next.put(label, config);
+                }
+            }
+            variants = next;
+        }
+
+        Map<String, GAConfig> labelled = new LinkedHashMap<>();
+        for (Map.Entry<String, GAConfig> variant : variants.entrySet()) {
+            labelled.put(variant.getKey().isEmpty() ? "" : "[" + variant.getKey() + "]", variant.getValue());
+        }
+        return labelled;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length)
+            throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    public void run(List<Path> inputs) {
+        if (!json)
+            out.println("map,algorithm,rows,cols,finished,cost,path_length,expanded,steps,millis");
+
+        for (Path map : collectMaps(inputs)) {
+            Maze maze;
+            try {
+                maze = Maze.load(map);
+            } catch (IOException e) {
+                System.err.println("Skipping " + map + ": " + e.getMessage());
+                continue;
+            }
+
+            for (String algorithm : algorithms) {
+                if (algorithm.equals("ga") || algorithm.equals("ga-islands")) {
+                    for (Map.Entry<String, GAConfig> variant : gaVariants.entrySet()) {
+                        solve(map, maze, algorithm + variant.getKey(), () -> newGa(algorithm, maze, variant.getValue()));
+                    }
+                } else if (saveLandmarks && algorithm.equals("astar-alt")) {
+                    solve(map, maze, algorithm, () -> new AStarAnimatorWrapper(maze,
+                            new LandmarkHeuristic(maze, Pathfinders.landmarks(maze, map)), "A* (Landmarks)"));
+                } else {
+                    solve(map, maze, algorithm, () -> Pathfinders.create(algorithm, maze));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private AnimatablePathfinder newGa(String algorithm, Maze maze, GAConfig config) {
+        long gaSeed = seed != null ? seed : System.nanoTime();
+        if (algorithm.equals("ga-islands"))
+            return new IslandGeneticAlgorithm(maze, gaSeed, config);
+        return new GeneticAlgorithmVisualizer(maze, gaSeed, Runtime.getRuntime().availableProcessors(), config);
+    }
+
+    // construction counts towards the time
+    private void solve(Path map, Maze maze, String algorithm, Supplier<AnimatablePathfinder> create) {
+        long begin = System.nanoTime();
+
+        AnimatablePathfinder solver = create.get();
+        if (solver instanceof GeneticAlgorithmVisualizer)
+            ((GeneticAlgorithmVisualizer) solver).setLogging(false);
+        if (solver instanceof IslandGeneticAlgorithm)
+            ((IslandGeneticAlgorithm) solver).setLogging(false);
+
+        SearchTrace.Recorder recorder = null;
+        if (recordDir != null) {
+            Path file = SearchTrace.traceFile(recordDir, mapName(map), algorithm);
+            try {
+                recorder = new SearchTrace.Recorder(maze, solver, file);
+            } catch (IOException e) {
+                System.err.println("Not recording " + file + ": " + e.getMessage());
+            }
+        }
+
+        long steps = 0;
+        while (!solver.isFinished() && steps < maxSteps) {
+            if (recorder != null)
+                recorder = recordStep(recorder);
+            else
+                solver.nextStep();
+            steps++;
+        }
+        if (recorder != null)
+            closeRecording(recorder);
+
+        double millis = (System.nanoTime() - begin) / 1e6;
+        int pathLength = Math.max(0, solver.getPath().size() - 1);
+
+        if (json) {
+            out.printf(Locale.ROOT,
+                    "{\"map\":\"%s\",\"algorithm\":\"%s\",\"rows\":%d,\"cols\":%d,\"finished\":%b,"
+                            + "\"cost\":%d,\"path_length\":%d,\"expanded\":%d,\"steps\":%d,\"millis\":%.3f}%n",
+                    jsonEscape(map.toString()), jsonEscape(algorithm), maze.height(), maze.width(), solver.isFinished(),
+                    solver.getTotalCost(), pathLength, solver.getExpandedCount(), steps, millis);
+        } else {
+            out.printf(Locale.ROOT, "%s,%s,%d,%d,%b,%d,%d,%d,%d,%.3f%n",
+                    csvField(map.toString()), csvField(algorithm), maze.height(), maze.width(), solver.isFinished(),
+                    solver.getTotalCost(), pathLength, solver.getExpandedCount(), steps, millis);
+        }
+    }
+
+    // null once the recording failed, the run then goes on unrecorded
+    private static SearchTrace.Recorder recordStep(SearchTrace.Recorder recorder) {
+        try {
+            recorder.step();
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("Recording stopped: " + e.getMessage());
+            closeRecording(recorder);
+            return null;
+        }
+    }
+
+    private static void closeRecording(SearchTrace.Recorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Could not finish the recording: " + e.getMessage());
+        }
+    }
+
+    private static String mapName(Path map) {
+        String name = map.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // files as given, directories expanded to their .txt and .mazb maps in name order
+    private static List<Path> collectMaps(List<Path> inputs) {
+        List<Path> maps = new ArrayList<>();
+        for (Path input : inputs) {
+            if (!Files.isDirectory(input)) {
+                maps.add(input);
+                continue;
+            }
+
+            List<Path> found = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(input, "*.{txt,mazb}")) {
+                for (Path entry : entries) {
+                    found.add(entry);
+                }
+            } catch (IOException e) {
+                System.err.println("Skipping " + input + ": " + e.getMessage());
+            }
+            Collections.sort(found);
+            maps.addAll(found);
+        }
+        return maps;
+    }
+
+    // the text between the quotes of a JSON string
+    static String jsonEscape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20)
+                        escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+                    else
+                        escaped.append(ch);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // quoted, with quotes doubled, when it holds a comma, quote or line break
+    static String csvField(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r')
+                return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
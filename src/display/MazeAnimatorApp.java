@@ -6,20 +6,34 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
 
 public class MazeAnimatorApp extends JFrame implements ActionListener {
 
     private Maze maze;
     private MazePanel mazePanel;
-    private Timer timer;
+    private Timer frameTimer;           // picks up the runner's latest snapshot
     private AnimatablePathfinder currentSolver;
+    private SolverRunner runner;
+    private TracePlayer player;         // set while a recorded trace is replayed
+    private SolverSnapshot shown;
 
     private JButton startButton;
     private JButton resetButton;
+    private JButton recordButton;
+    private JButton replayButton;
+    private JSlider scrubber;           // step of the replayed trace
+    private boolean movingScrubber = false;
     private JLabel statusLabel;
     private JComboBox<String> algoSelector;
+    private JComboBox<String> stepsSelector;
 
-    private int animationDelay;
+    // steps the worker takes between two frames, Max runs it flat out
+    private static final String[] STEPS_PER_FRAME = { "1", "2", "5", "20", "100", "1000", "Max" };
+    private int stepsPerFrame;
 
     public MazeAnimatorApp(Maze maze) {
         this.maze = maze;
@@ -29,10 +43,21 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
         calculateSpeed();
 
         currentSolver = new DijkstraAnimatorWrapper(maze);
+        runner = new SolverRunner(maze, currentSolver, stepsPerFrame);
+        shown = runner.take();
 
         setupGUI();
 
-        timer = new Timer(animationDelay, this);
+        frameTimer = new Timer(1000 / SolverRunner.FRAMES_PER_SECOND, this);
+        frameTimer.start();
+
+        // a recording still being written gets its last records flushed
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                runner.close();
+            }
+        });
 
         pack();
         setLocationRelativeTo(null);
@@ -42,17 +67,20 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
     private void calculateSpeed() {
         int totalCells = maze.width() * maze.height();
 
-        if (totalCells <= 100) {
-            animationDelay = 150;
-        } else if (totalCells <= 900) {
-            animationDelay = 50;
+        if (totalCells <= 900) {
+            stepsPerFrame = 1;
         } else if (totalCells <= 2500) {
-            animationDelay = 10;
+            stepsPerFrame = 2;
         } else {
-            animationDelay = 1;
+            stepsPerFrame = 20;
         }
     }
 
+    // 0 for Max
+    private static int parseSteps(String choice) {
+        return "Max".equals(choice) ? 0 : Integer.parseInt(choice);
+    }
+
     private void setupGUI() {
         Container contentPane = getContentPane();
         contentPane.setLayout(new BorderLayout());
@@ -63,9 +91,17 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
 
         String[] algos = {
                 "Dijkstra",
+                "Dijkstra (Bucket Queue)",
+                "Bidirectional Dijkstra",
                 "A* (A-Star)",
+                "A* (Landmarks)",
+                "A* (Rectangle Pruning)",
+                "LPA* (Incremental)",
+                "HPA*",
+                "HPA* (Exact)",
                 "Greedy Best-First Search",
-                "Genetic Algorithm"
+                "Genetic Algorithm",
+                "Genetic Algorithm (Islands)"
         };
 
         algoSelector = new JComboBox<>(algos);
@@ -75,7 +111,19 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
 
         contentPane.add(topPanel, BorderLayout.NORTH);
 
-        mazePanel = new MazePanel(maze, currentSolver);
+        topPanel.add(new JLabel("Steps/frame: "));
+        stepsSelector = new JComboBox<>(STEPS_PER_FRAME);
+        stepsSelector.setSelectedItem(String.valueOf(stepsPerFrame));
+        stepsSelector.setFocusable(false);
+        stepsSelector.addActionListener(e -> {
+            stepsPerFrame = parseSteps((String) stepsSelector.getSelectedItem());
+            runner.setStepsPerFrame(stepsPerFrame);
+            if (player != null)
+                player.setStepsPerFrame(stepsPerFrame);
+        });
+        topPanel.add(stepsSelector);
+
+        mazePanel = new MazePanel(maze, shown);
         contentPane.add(mazePanel, BorderLayout.CENTER);
 
         JPanel controlPanel = new JPanel();
@@ -89,19 +137,44 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
         resetButton.setFocusable(false);
         resetButton.addActionListener(e -> resetSolver());
 
-        statusLabel = new JLabel("Status: Ready | Speed: " + animationDelay + "ms");
+        recordButton = new JButton("Record...");
+        recordButton.setFocusable(false);
+        recordButton.addActionListener(e -> chooseRecording());
+
+        replayButton = new JButton("Replay...");
+        replayButton.setFocusable(false);
+        replayButton.addActionListener(e -> chooseReplay());
+
+        scrubber = new JSlider(0, 0, 0);
+        scrubber.setFocusable(false);
+        scrubber.setVisible(false);
+        scrubber.addChangeListener(e -> {
+            if (!movingScrubber && player != null) {
+                player.seek(scrubber.getValue());
+                showFrame();
+            }
+        });
+
+        statusLabel = new JLabel("Status: Ready | Steps/frame: " + stepsPerFrame);
         statusLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0)); // เว้นระยะนิดหน่อย
 
         controlPanel.add(startButton);
         controlPanel.add(resetButton);
+        controlPanel.add(recordButton);
+        controlPanel.add(replayButton);
+        controlPanel.add(scrubber);
         controlPanel.add(statusLabel);
         contentPane.add(controlPanel, BorderLayout.SOUTH);
     }
 
     private void resetSolver() {
 
-        if (timer.isRunning())
-            timer.stop();
+        // the old worker finishes its step on the old solver and stops
+        runner.close();
+        player = null;
+        scrubber.setVisible(false);
+        recordButton.setText("Record...");
+        recordButton.setEnabled(true);
 
         startButton.setText("Start");
         startButton.setEnabled(true);
@@ -110,62 +183,153 @@ public class MazeAnimatorApp extends JFrame implements ActionListener {
 
         if ("Dijkstra".equals(selected)) {
             currentSolver = new DijkstraAnimatorWrapper(maze);
+        } else if ("Dijkstra (Bucket Queue)".equals(selected)) {
+            currentSolver = new BucketDijkstraAnimatorWrapper(maze);
+        } else if ("Bidirectional Dijkstra".equals(selected)) {
+            currentSolver = new BidirectionalDijkstraAnimatorWrapper(maze);
         } else if ("A* (A-Star)".equals(selected)) {
             currentSolver = new AStarAnimatorWrapper(maze);
+        } else if ("A* (Landmarks)".equals(selected)) {
+            currentSolver = Pathfinders.create("astar-alt", maze);    // landmarks kept across resets
+        } else if ("A* (Rectangle Pruning)".equals(selected)) {
+            currentSolver = new RectangleAStarAnimatorWrapper(maze);
+        } else if ("LPA* (Incremental)".equals(selected)) {
+            currentSolver = new LpaStarAnimatorWrapper(maze);
+        } else if ("HPA*".equals(selected)) {
+            currentSolver = Pathfinders.create("hpa", maze);
+        } else if ("HPA* (Exact)".equals(selected)) {
+            currentSolver = Pathfinders.create("hpa-exact", maze);
         } else if ("Greedy Best-First Search".equals(selected)) {
             currentSolver = new GreedyAnimatorWrapper(maze);
         } else if ("Genetic Algorithm".equals(selected)) {
-            currentSolver = new GeneticAlgorithmVisualizer(maze);
+            currentSolver = new GeneticAlgorithmVisualizer(maze, System.nanoTime(),
+                    Runtime.getRuntime().availableProcessors());
+        } else if ("Genetic Algorithm (Islands)".equals(selected)) {
+            currentSolver = new IslandGeneticAlgorithm(maze, System.nanoTime(), new GAConfig());
         }
 
-        mazePanel.setSolver(currentSolver);
-        statusLabel.setText("Status: Ready (" + currentSolver.getName() + ")");
-        mazePanel.repaint();
+        runner = new SolverRunner(maze, currentSolver, stepsPerFrame);
+        shown = runner.take();
+        mazePanel.setSnapshot(shown);
+        statusLabel.setForeground(Color.BLACK);
+        statusLabel.setText("Status: Ready (" + shown.name + ")");
     }
 
     private void toggleAnimation() {
-        if (timer.isRunning()) {
-            timer.stop();
+        boolean running = player != null ? player.isRunning() : runner.isRunning();
+        if (running) {
+            if (player != null)
+                player.pause();
+            else
+                runner.pause();
             startButton.setText("Resume");
             statusLabel.setText("Status: Paused");
-        } else if (!currentSolver.isFinished()) {
-            timer.start();
+        } else if (!shown.finished) {
+            if (player != null) {
+                player.start();
+                if (!player.isRunning())
+                    return;     // at the end of a run that was cut short
+            } else {
+                runner.start();
+                recordButton.setEnabled(false);
+            }
             startButton.setText("Pause");
         }
     }
 
+    // records the run from its first step
+    private void chooseRecording() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("run" + SearchTrace.EXTENSION));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+        try {
+            runner.record(maze, chooser.getSelectedFile().toPath());
+        } catch (IOException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(this, "Cannot record: " + e.getMessage(), "Record",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        recordButton.setText("Recording");
+        recordButton.setEnabled(false);
+    }
+
+    private void chooseReplay() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+        SearchTrace trace;
+        try {
+            trace = SearchTrace.load(chooser.getSelectedFile().toPath(), maze);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Cannot replay " + chooser.getSelectedFile() + ": " + e.getMessage(),
+                    "Replay", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        resetSolver();
+        player = new TracePlayer(trace, stepsPerFrame);
+        recordButton.setEnabled(false);
+        movingScrubber = true;
+        scrubber.setMaximum(player.steps());
+        scrubber.setValue(0);
+        movingScrubber = false;
+        scrubber.setVisible(true);
+        showFrame();
+        startButton.setText("Start");
+        statusLabel.setText("Status: Replay ready (" + shown.name + ", " + player.steps() + " steps)");
+    }
+
+    // runs every frame on the Swing thread, the solver itself is never touched here
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (!currentSolver.isFinished()) {
-            currentSolver.nextStep();
-
-            updateStatusLabel();
+        if (player != null)
+            player.advance();
+        showFrame();
+    }
 
-            mazePanel.repaint();
-        } else {
+    private void showFrame() {
+        SolverSnapshot latest = player != null ? player.take() : runner.take();
+        if (latest == null)
+            return;
+        shown = latest;
+        mazePanel.setSnapshot(latest);     // repaints the cells that changed
+
+        if (player != null) {
+            movingScrubber = true;
+            scrubber.setValue(player.position());
+            movingScrubber = false;
+        }
 
-            timer.stop();
+        boolean running = player != null ? player.isRunning() : runner.isRunning();
+        if (latest.finished) {
             startButton.setText("Finished");
             startButton.setEnabled(false);
 
-            statusLabel.setText("Done! Total: " + currentSolver.getTotalCost());
+            statusLabel.setText("Done! Total: " + latest.totalCost);
             statusLabel.setForeground(new Color(0, 128, 0));
-            mazePanel.repaint();
+        } else if (running || player != null) {
+            // scrubbed back from the end of a replay
+            startButton.setText(running ? "Pause" : "Resume");
+            startButton.setEnabled(true);
+            updateStatusLabel(latest);
         }
     }
 
-    private void updateStatusLabel() {
+    private void updateStatusLabel(SolverSnapshot snapshot) {
         statusLabel.setForeground(Color.BLACK);
 
-        if (currentSolver instanceof GeneticAlgorithmVisualizer) {
+        if (player != null) {
+            statusLabel.setText(String.format("Replay: %s | Step %d/%d | Cost: %d | OpenSet: %d | ClosedSet: %d",
+                    snapshot.name, snapshot.steps, player.steps(), snapshot.totalCost,
+                    snapshot.openCount, snapshot.closedCount));
+        } else if (currentSolver instanceof GeneticAlgorithmVisualizer || currentSolver instanceof IslandGeneticAlgorithm) {
             statusLabel.setText(String.format("Running: %s | Best : %d",
-                    currentSolver.getName(), currentSolver.getTotalCost()));
+                    snapshot.name, snapshot.totalCost));
         } else {
 
             statusLabel.setText(String.format("Running: %s | OpenSet: %d | ClosedSet: %d",
-                    currentSolver.getName(),
-                    currentSolver.getOpenSet().size(),
-                    currentSolver.getClosedSet().size()));
+                    snapshot.name, snapshot.openCount, snapshot.closedCount));
         }
     }
 }
\ No newline at end of file
@@ -1,103 +1,198 @@
 package display;
 
-import pathfinder.AnimatablePathfinder;
 import maze.Maze;
 import maze.CellType;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Set;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
+// Draws the maze once into an image at the current cell size and after that
+// only redraws the cells a snapshot lists as changed, so a frame costs the
+// cells that changed instead of the whole maze. The screen is repainted by
+// tiles of TILE x TILE cells, only the tiles with a changed cell; Swing
+// would merge separate repaint calls into one box around all of them.
 public class MazePanel extends JPanel {
+    private static final Color CLOSED_COLOR = new Color(100, 100, 100);
+    private static final Color GRID_COLOR = new Color(200, 200, 200);
+    private static final byte UNDRAWN = -1;
+    private static final int TILE = 16;
+    private static final int MAX_TILE_PAINTS = 32;  // past this one repaint of the box around them
+
     private final Maze maze;
-    private AnimatablePathfinder solver;
+    private final byte[] states;    // by cell index, as the snapshots so far left them
+
+    private BufferedImage image;
+    private Graphics2D imageGraphics;
+    private int cellSize;
+    private byte[] drawn;           // state each cell shows in the image, by index
+
+    // tiles with a redrawn cell this frame
+    private final int tileCols;
+    private final boolean[] tileDirty;
+    private int[] dirtyTiles = new int[64];
+    private int dirtyCount = 0;
 
-    public MazePanel(Maze maze, AnimatablePathfinder solver) {
+    public MazePanel(Maze maze, SolverSnapshot snapshot) {
         this.maze = maze;
-        this.solver = solver;
-        this.setPreferredSize(new Dimension(800, 600)); 
-        this.setBackground(Color.DARK_GRAY); 
+        this.states = new byte[maze.cellCount()];
+        this.drawn = new byte[maze.cellCount()];
+        this.tileCols = (maze.width() + TILE - 1) / TILE;
+        this.tileDirty = new boolean[tileCols * ((maze.height() + TILE - 1) / TILE)];
+        this.setPreferredSize(new Dimension(800, 600));
+        this.setBackground(Color.DARK_GRAY);
+        apply(snapshot);
+    }
+
+    // the panel only ever reads snapshots, never the solver itself
+    public void setSnapshot(SolverSnapshot snapshot) {
+        apply(snapshot);
+        if (image == null || cellSize != fitCellSize()) {
+            repaint();
+            return;
+        }
+
+        // redraw the changed cells now, a reset frame may change any cell
+        if (snapshot.reset) {
+            for (int index = 0; index < states.length; index++) {
+                redraw(index);
+            }
+        } else {
+            for (int i = 0; i < snapshot.changedCount(); i++) {
+                redraw(snapshot.changed(i));
+            }
+        }
+        paintDirtyTiles();
+    }
+
+    private void apply(SolverSnapshot snapshot) {
+        if (snapshot.reset)
+            Arrays.fill(states, SolverSnapshot.NONE);
+        for (int i = 0; i < snapshot.changedCount(); i++) {
+            states[snapshot.changed(i)] = snapshot.changedState(i);
+        }
+    }
+
+    private void redraw(int index) {
+        if (drawn[index] == states[index])
+            return;
+        drawCell(index);
+        int tile = maze.row(index) / TILE * tileCols + maze.col(index) / TILE;
+        if (tileDirty[tile])
+            return;
+        tileDirty[tile] = true;
+        if (dirtyCount == dirtyTiles.length)
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        dirtyTiles[dirtyCount++] = tile;
+    }
+
+    private void paintDirtyTiles() {
+        int tileSize = TILE * cellSize;
+        int minR = Integer.MAX_VALUE, minC = Integer.MAX_VALUE, maxR = -1, maxC = -1;
+        boolean each = dirtyCount <= MAX_TILE_PAINTS && isShowing();
+        for (int i = 0; i < dirtyCount; i++) {
+            int tile = dirtyTiles[i];
+            tileDirty[tile] = false;
+            int r = tile / tileCols;
+            int c = tile % tileCols;
+            if (each) {
+                paintImmediately(originX() + c * tileSize, originY() + r * tileSize, tileSize + 1, tileSize + 1);
+            } else {
+                minR = Math.min(minR, r);
+                maxR = Math.max(maxR, r);
+                minC = Math.min(minC, c);
+                maxC = Math.max(maxC, c);
+            }
+        }
+        dirtyCount = 0;
+        if (maxR >= 0)
+            repaint(originX() + minC * tileSize, originY() + minR * tileSize,
+                    (maxC - minC + 1) * tileSize + 1, (maxR - minR + 1) * tileSize + 1);
     }
 
-    public void setSolver(AnimatablePathfinder newSolver) {
-        this.solver = newSolver;
+    private int fitCellSize() {
+        int cellW = getWidth() / maze.width();
+        int cellH = getHeight() / maze.height();
+        return Math.max(2, Math.min(cellW, cellH));
+    }
+
+    private int originX() {
+        return (getWidth() - maze.width() * cellSize) / 2;
+    }
+
+    private int originY() {
+        return (getHeight() - maze.height() * cellSize) / 2;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        int panelWidth = getWidth();
-        int panelHeight = getHeight();
-        int rows = maze.height();
-        int cols = maze.width();
-
-        int cellW = panelWidth / cols;
-        int cellH = panelHeight / rows;
-        int cellSize = Math.min(cellW, cellH); 
-        
-        cellSize = Math.max(2, cellSize);
-
-        int totalMazeWidth = cols * cellSize;
-        int totalMazeHeight = rows * cellSize;
-        int startX = (panelWidth - totalMazeWidth) / 2;
-        int startY = (panelHeight - totalMazeHeight) / 2;
-
-        Set<Point> openSet = solver.getOpenSet();
-        Set<Point> closedSet = solver.getClosedSet();
-        List<Point> finalPath = solver.getPath();
-
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                int x = startX + (c * cellSize);
-                int y = startY + (r * cellSize);
-                Point p = new Point(r, c);
-                
-                CellType type = maze.get(r, c).type;
-                int value = maze.get(r, c).value;
-
-                if (type == CellType.WALL) {
-                    g2d.setColor(Color.BLACK);
-                } else if (p.equals(maze.getStart())) {
-                    g2d.setColor(Color.GREEN);
-                } else if (p.equals(maze.getGoal())) {
-                    g2d.setColor(Color.RED);
-                } else if (finalPath.contains(p)) {
-                    g2d.setColor(Color.YELLOW); 
-                } else if (closedSet.contains(p)) {
-                    g2d.setColor(new Color(100, 100, 100)); 
-                } else if (openSet.contains(p)) {
-                    g2d.setColor(Color.CYAN); 
-                } else {
-                    g2d.setColor(Color.WHITE); 
-                }
-                g2d.fillRect(x, y, cellSize, cellSize);
-                
-                if (cellSize > 5) {
-                    g2d.setColor(new Color(200, 200, 200));
-                    g2d.drawRect(x, y, cellSize, cellSize);
-                }
-
-                if (cellSize > 15) {
-                    if (type == CellType.NUMBER || type == CellType.START || type == CellType.GOAL) {
-                        g2d.setColor(Color.BLACK);
-                        int fontSize = Math.max(8, cellSize / 2); 
-                        g2d.setFont(new Font("Arial", Font.BOLD, fontSize));
-                        
-                        String text = (type == CellType.START) ? "S" : 
-                                      (type == CellType.GOAL) ? "G" : String.valueOf(value);
-                        
-                        FontMetrics fm = g2d.getFontMetrics();
-                        int textX = x + (cellSize - fm.stringWidth(text)) / 2;
-                        int textY = y + (cellSize - fm.getHeight()) / 2 + fm.getAscent();
-                        g2d.drawString(text, textX, textY);
-                    }
-                }
-            }
+
+        if (image == null || cellSize != fitCellSize())
+            redrawAll(fitCellSize());
+        g.drawImage(image, originX(), originY(), null);
+    }
+
+    private void redrawAll(int newCellSize) {
+        if (imageGraphics != null)
+            imageGraphics.dispose();
+        cellSize = newCellSize;
+        // one pixel more for the grid lines on the far edges
+        image = new BufferedImage(maze.width() * cellSize + 1, maze.height() * cellSize + 1,
+                BufferedImage.TYPE_INT_RGB);
+        imageGraphics = image.createGraphics();
+        imageGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        imageGraphics.setColor(getBackground());
+        imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        imageGraphics.setFont(new Font("Arial", Font.BOLD, Math.max(8, cellSize / 2)));
+
+        Arrays.fill(drawn, UNDRAWN);
+        for (int index = 0; index < drawn.length; index++) {
+            drawCell(index);
+        }
+    }
+
+    private void drawCell(int index) {
+        Graphics2D g2d = imageGraphics;
+        byte state = states[index];
+        drawn[index] = state;
+
+        int x = maze.col(index) * cellSize;
+        int y = maze.row(index) * cellSize;
+        CellType type = maze.cellType(index);
+
+        if (type == CellType.WALL) {
+            g2d.setColor(Color.BLACK);
+        } else if (type == CellType.START) {
+            g2d.setColor(Color.GREEN);
+        } else if (type == CellType.GOAL) {
+            g2d.setColor(Color.RED);
+        } else if (state == SolverSnapshot.PATH) {
+            g2d.setColor(Color.YELLOW);
+        } else if (state == SolverSnapshot.CLOSED) {
+            g2d.setColor(CLOSED_COLOR);
+        } else if (state == SolverSnapshot.OPEN) {
+            g2d.setColor(Color.CYAN);
+        } else {
+            g2d.setColor(Color.WHITE);
+        }
+        g2d.fillRect(x, y, cellSize, cellSize);
+
+        if (cellSize > 5) {
+            g2d.setColor(GRID_COLOR);
+            g2d.drawRect(x, y, cellSize, cellSize);
+        }
+
+        if (cellSize > 15 && type != CellType.WALL) {
+            g2d.setColor(Color.BLACK);
+            String text = (type == CellType.START) ? "S" :
+                          (type == CellType.GOAL) ? "G" : String.valueOf(maze.cost(index));
+
+            FontMetrics fm = g2d.getFontMetrics();
+            int textX = x + (cellSize - fm.stringWidth(text)) / 2;
+            int textY = y + (cellSize - fm.getHeight()) / 2 + fm.getAscent();
+            g2d.drawString(text, textX, textY);
         }
     }
-}
\ No newline at end of file
+}
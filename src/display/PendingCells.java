@@ -0,0 +1,57 @@
+package display;
+
+import java.util.Arrays;
+
+// Cells changed since the panel last took a frame, each once with its
+// latest state, so frames the panel never took still reach it. take()
+// hands them over as a SolverSnapshot and starts over empty.
+//
+// Not thread safe, the owner guards it.
+class PendingCells {
+    private final int[] slot;           // position in cells by index, -1 when not pending
+    private int[] cells = new int[64];
+    private byte[] states = new byte[64];
+    private int count = 0;
+    private boolean reset = false;
+
+    PendingCells(int cellCount) {
+        slot = new int[cellCount];
+        Arrays.fill(slot, -1);
+    }
+
+    void add(int index, byte state) {
+        int at = slot[index];
+        if (at < 0) {
+            if (count == cells.length) {
+                cells = Arrays.copyOf(cells, count * 2);
+                states = Arrays.copyOf(states, count * 2);
+            }
+            at = count++;
+            slot[index] = at;
+            cells[at] = index;
+        }
+        states[at] = state;
+    }
+
+    // drops what is pending, the next frame starts over from all cells NONE
+    void reset() {
+        clear();
+        reset = true;
+    }
+
+    SolverSnapshot take(String name, boolean finished, int totalCost, int expanded, int openCount,
+            int closedCount, long steps) {
+        SolverSnapshot snapshot = new SolverSnapshot(reset, Arrays.copyOf(cells, count), Arrays.copyOf(states, count),
+                name, finished, totalCost, expanded, openCount, closedCount, steps);
+        clear();
+        reset = false;
+        return snapshot;
+    }
+
+    private void clear() {
+        for (int i = 0; i < count; i++) {
+            slot[cells[i]] = -1;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,201 @@
+package display;
+
+import maze.Maze;
+import pathfinder.AnimatablePathfinder;
+import pathfinder.CellStates;
+import pathfinder.SearchTrace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Steps a solver on its own thread so the Swing thread only paints. Every
+// frame the worker takes stepsPerFrame steps, or as many as fit in the
+// frame when it is 0, and publishes the cells that changed for the panel
+// to take as a SolverSnapshot. Only the worker touches the solver while it
+// runs.
+//
+// Cell states are followed through CellStates, so engines with a change
+// feed only cost what changed since the last frame, and so does the
+// frame the panel takes. A run can also be
+// recorded to a SearchTrace, step by step.
+public class SolverRunner {
+    public static final int FRAMES_PER_SECOND = 60;
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / FRAMES_PER_SECOND;
+
+    private final AnimatablePathfinder solver;
+    private final CellStates states;    // worker only, but for close()
+    private volatile int stepsPerFrame;
+    private volatile boolean running = false;
+    private volatile boolean finished;
+    private volatile Thread worker;     // an older worker stops at its next check
+    private volatile long steps = 0;    // written by the worker only
+
+    // the last frame published and the cells changed since the panel took one
+    private final Object frameLock = new Object();
+    private final PendingCells pending;     // guarded by frameLock
+    private boolean published = false;      // guarded by frameLock
+    private String name;
+    private int totalCost, expanded, openCount, closedCount;
+    private long frameSteps;
+
+    private final Object recordLock = new Object();
+    private SearchTrace.Recorder recorder;  // guarded by recordLock
+
+    public SolverRunner(Maze maze, AnimatablePathfinder solver, int stepsPerFrame) {
+        this.solver = solver;
+        this.states = new CellStates(maze, solver);
+        this.stepsPerFrame = stepsPerFrame;
+        this.pending = new PendingCells(maze.cellCount());
+        pending.reset();
+        publish();
+    }
+
+    // what changed since the last call, null when no frame was published
+    // since; the first one is a reset frame
+    public SolverSnapshot take() {
+        synchronized (frameLock) {
+            if (!published)
+                return null;
+            published = false;
+            return pending.take(name, finished, totalCost, expanded, openCount, closedCount, frameSteps);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 0 for as many steps as fit in a frame
+    public void setStepsPerFrame(int stepsPerFrame) {
+        this.stepsPerFrame = stepsPerFrame;
+    }
+
+    // records every step from here on, only before the first step
+    public synchronized void record(Maze maze, Path file) throws IOException {
+        if (running || steps > 0)
+            throw new IllegalStateException("Recording has to start before the first step");
+        synchronized (recordLock) {
+            closeRecording();
+            recorder = new SearchTrace.Recorder(maze, solver, file);
+        }
+    }
+
+    public boolean isRecording() {
+        synchronized (recordLock) {
+            return recorder != null;
+        }
+    }
+
+    public synchronized void start() {
+        if (running || finished)
+            return;
+        running = true;
+        Thread previous = worker;
+        worker = new Thread(() -> run(previous), "solver-" + solver.getName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // the worker stops after its current step; a step is never cut short
+    public synchronized void pause() {
+        running = false;
+    }
+
+    // stops for good, waiting for the current step so the recording ends on a whole record
+    public void close() {
+        pause();
+        states.close();
+        synchronized (recordLock) {
+            closeRecording();
+        }
+    }
+
+    private void run(Thread previous) {
+        // a paused worker may still be finishing its last step
+        if (previous != null) {
+            try {
+                previous.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        while (isCurrent() && !solver.isFinished()) {
+            long deadline = System.nanoTime() + FRAME_NANOS;
+            int budget = stepsPerFrame;
+            int taken = 0;
+            while (isCurrent() && !solver.isFinished()
+                    && (budget > 0 ? taken < budget : System.nanoTime() < deadline)) {
+                step();
+                steps++;
+                taken++;
+            }
+            publish();
+
+            long wait = deadline - System.nanoTime();
+            if (budget > 0 && wait > 0)
+                LockSupport.parkNanos(wait);
+        }
+        if (solver.isFinished()) {
+            synchronized (recordLock) {
+                closeRecording();
+            }
+        }
+        // a pause and start while this worker finished its step belong to the next one
+        synchronized (this) {
+            if (worker == Thread.currentThread())
+                running = false;
+        }
+    }
+
+    private boolean isCurrent() {
+        return running && worker == Thread.currentThread();
+    }
+
+    private void step() {
+        synchronized (recordLock) {
+            if (recorder == null) {
+                solver.nextStep();
+                return;
+            }
+            try {
+                recorder.step();
+            } catch (IOException e) {
+                System.err.println("Recording stopped: " + e.getMessage());
+                closeRecording();
+            }
+        }
+    }
+
+    private void closeRecording() {
+        if (recorder == null)
+            return;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Could not finish the recording: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    private void publish() {
+        states.update();
+        synchronized (frameLock) {
+            for (int i = 0; i < states.changedCount(); i++) {
+                int index = states.changed(i);
+                pending.add(index, states.state(index));
+            }
+            name = solver.getName();
+            totalCost = solver.getTotalCost();
+            expanded = solver.getExpandedCount();
+            openCount = states.openCount();
+            closedCount = states.closedCount();
+            frameSteps = steps;
+            finished = solver.isFinished();
+            published = true;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package display;
+
+import pathfinder.CellStates;
+
+// What changed for one frame, taken between two steps on the solver's
+// thread or read from a recorded trace, and never changed afterwards. It
+// carries only the cells whose state changed since the frame before, each
+// once with its new state, so a frame costs the changes and not the maze.
+// A reset frame starts over from all cells NONE and lists every cell that
+// is not. Each cell keeps only its strongest state: path over closed over
+// open.
+public class SolverSnapshot {
+    public static final byte NONE = CellStates.NONE;
+    public static final byte OPEN = CellStates.OPEN;
+    public static final byte CLOSED = CellStates.CLOSED;
+    public static final byte PATH = CellStates.PATH;
+
+    public final boolean reset;
+    private final int[] changed;        // cell indices
+    private final byte[] changedStates; // their new states, in the same order
+    public final String name;
+    public final boolean finished;
+    public final int totalCost;
+    public final int expanded;
+    public final int openCount;
+    public final int closedCount;
+    public final long steps;
+
+    // the arrays are taken over
+    SolverSnapshot(boolean reset, int[] changed, byte[] changedStates, String name, boolean finished,
+            int totalCost, int expanded, int openCount, int closedCount, long steps) {
+        this.reset = reset;
+        this.changed = changed;
+        this.changedStates = changedStates;
+        this.name = name;
+        this.finished = finished;
+        this.totalCost = totalCost;
+        this.expanded = expanded;
+        this.openCount = openCount;
+        this.closedCount = closedCount;
+        this.steps = steps;
+    }
+
+    public int changedCount() {
+        return changed.length;
+    }
+
+    public int changed(int i) {
+        return changed[i];
+    }
+
+    public byte changedState(int i) {
+        return changedStates[i];
+    }
+}
@@ -0,0 +1,105 @@
+package display;
+
+import pathfinder.SearchTrace;
+
+// Plays a recorded SearchTrace back on the Swing thread, no solver
+// involved. Every frame moves on stepsPerFrame steps, or with 0 as fast as
+// the steps took when they were recorded, and seek jumps to any step.
+// Frames carry the cells that changed, as from a SolverRunner; a seek that
+// starts over from a keyframe gives a reset frame.
+public class TracePlayer {
+    private static final long FRAME_MICROS = 1_000_000L / SolverRunner.FRAMES_PER_SECOND;
+
+    private final SearchTrace trace;
+    private final SearchTrace.Cursor cursor;
+    private int stepsPerFrame;
+    private boolean playing = false;
+    private long clock;                 // recorded time played so far, for stepsPerFrame 0
+    private final PendingCells pending;
+    private boolean moved = false;      // the cursor moved since the last take
+
+    public TracePlayer(SearchTrace trace, int stepsPerFrame) {
+        this.trace = trace;
+        this.cursor = trace.cursor();
+        this.stepsPerFrame = stepsPerFrame;
+        this.pending = new PendingCells(cursor.cellCount());
+        pending.reset();
+        seek(0);
+    }
+
+    // what changed since the last call, null when the cursor has not moved
+    public SolverSnapshot take() {
+        if (!moved)
+            return null;
+        moved = false;
+        int at = cursor.step();
+        return pending.take(trace.name(at), trace.isFinished(at), trace.totalCost(at), trace.expanded(at),
+                cursor.openCount(), cursor.closedCount(), at);
+    }
+
+    public boolean isRunning() {
+        return playing;
+    }
+
+    public void setStepsPerFrame(int stepsPerFrame) {
+        this.stepsPerFrame = stepsPerFrame;
+    }
+
+    public int steps() {
+        return trace.steps();
+    }
+
+    public int position() {
+        return cursor.step();
+    }
+
+    public void start() {
+        if (position() < trace.steps())
+            playing = true;
+    }
+
+    public void pause() {
+        playing = false;
+    }
+
+    // once a frame
+    public void advance() {
+        if (!playing)
+            return;
+
+        int target = position();
+        if (stepsPerFrame > 0) {
+            target += stepsPerFrame;
+        } else {
+            clock += FRAME_MICROS;
+            while (target < trace.steps() && trace.micros(target + 1) <= clock) {
+                target++;
+            }
+        }
+        show(target);
+        if (position() == trace.steps())
+            playing = false;
+    }
+
+    public void seek(int step) {
+        show(step);
+        clock = trace.micros(position());
+    }
+
+    private void show(int step) {
+        cursor.seek(step);
+        moved = true;
+        if (cursor.reloaded()) {
+            pending.reset();
+            for (int index = 0; index < cursor.cellCount(); index++) {
+                if (cursor.state(index) != SolverSnapshot.NONE)
+                    pending.add(index, cursor.state(index));
+            }
+            return;
+        }
+        for (int i = 0; i < cursor.changedCount(); i++) {
+            int index = cursor.changed(i);
+            pending.add(index, cursor.state(index));
+        }
+    }
+}
@@ -1,81 +1,102 @@
 package maze;
 import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 public class Maze {
-    private Cell[][] grid;
-    private Point start;
-    private Point goal;
+    // bits of the availableDirection mask
+    public static final int UP = 8;
+    public static final int DOWN = 4;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 1;
+
+    // cells are stored row by row, index = r * width + c
+    // the buffers wrap heap arrays for parsed mazes and a mapped file for binary ones
+    // until the first edit, which moves a mapped maze to the heap
+    private final int rows;
+    private final int cols;
+    private CharBuffer costs;       // entering cost, 0 for walls, start and goal
+    private ByteBuffer narrowCosts; // used instead of costs when every cost fits a byte
+    private LongBuffer walls;       // one bit per cell
+    private ByteBuffer directions;  // precomputed availableDirection masks
+    private final Point start;
+    private final Point goal;
+    private final int startIndex;
+    private final int goalIndex;
+    private int edits = 0;          // goes up with every edit
 
     public Maze(ArrayList<String> lines){
-        ArrayList<ArrayList<Cell>> parsed = new ArrayList<>();
+        this(parseLines(lines));
+    }
 
-        for(String line: lines){
-            parsed.add(parseLine(line));
-        }
+    // grid arrays are taken over, not copied, see MazeParser
+    Maze(int rows, int cols, char[] costs, long[] walls, int startIndex, int goalIndex){
+        this(rows, cols, CharBuffer.wrap(costs), null, LongBuffer.wrap(walls),
+                ByteBuffer.allocate(rows * cols), startIndex, goalIndex);
 
-        int rows = parsed.size();
-        int cols = parsed.get(0).size();
+        for(int index = 0; index < rows * cols; index++){
+            directions.put(index, (byte) computeDirection(index / cols, index % cols));
+        }
+    }
 
-        grid = new Cell[rows][cols];
+    // exactly one of costs and narrowCosts is set, see MazeBinary
+    Maze(int rows, int cols, CharBuffer costs, ByteBuffer narrowCosts, LongBuffer walls, ByteBuffer directions,
+            int startIndex, int goalIndex){
+        this.rows = rows;
+        this.cols = cols;
+        this.costs = costs;
+        this.narrowCosts = narrowCosts;
+        this.walls = walls;
+        this.directions = directions;
+        this.startIndex = startIndex;
+        this.goalIndex = goalIndex;
+        this.start = new Point(row(startIndex), col(startIndex));
+        this.goal = new Point(row(goalIndex), col(goalIndex));
+    }
 
-        for(int r = 0; r < rows; r++){
-            for(int c = 0; c < cols; c++){
-                Cell cell = parsed.get(r).get(c);
-                grid[r][c] = cell;
+    private Maze(Maze parsed){
+        this.rows = parsed.rows;
+        this.cols = parsed.cols;
+        this.costs = parsed.costs;
+        this.narrowCosts = parsed.narrowCosts;
+        this.walls = parsed.walls;
+        this.directions = parsed.directions;
+        this.startIndex = parsed.startIndex;
+        this.goalIndex = parsed.goalIndex;
+        this.start = parsed.start;
+        this.goal = parsed.goal;
+    }
 
-                if(cell.type == CellType.START)
-                    start = new Point(r, c);
-                
-                if (cell.type == CellType.GOAL)
-                    goal = new Point(r, c);
-            }
-        }
+    // loads a binary maze written by MazeBinary, or parses the text format
+    public static Maze load(Path file) throws IOException {
+        return MazeBinary.isBinary(file) ? MazeBinary.map(file) : MazeParser.parse(file);
     }
 
-    // parse input function
-    private ArrayList<Cell> parseLine(String line){
-        ArrayList<Cell> list = new ArrayList<>();
-        char[] lineChar = line.toCharArray();
-        String temp = "";
-        boolean inBracket = false;
-        for(char c: lineChar){
-            // start/ end of number cell
-            if(c == '"'){
-                // end of number
-                if(inBracket){
-                    list.add(new Cell(CellType.NUMBER, Integer.parseInt(temp)));
-                    temp = "";
-                    
-                }
-                // trigger from start and end
-                inBracket = !inBracket;
-            }
-            // other
-            else if(inBracket)
-                temp += c;
-            else if (c == '#')
-                list.add(new Cell(CellType.WALL));
-            else if (c == 'S')
-                list.add(new Cell(CellType.START));
-            else if (c == 'G')
-                list.add(new Cell(CellType.GOAL));
+    private static Maze parseLines(List<String> lines){
+        try {
+            return MazeParser.parse(lines);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
         }
-
-        return list;
     }
 
     // get values function
-    public Cell get(int r, int c) { 
-        return grid[r][c]; 
+    // builds a Cell view of the packed grid, prefer the primitive accessors below in loops
+    public Cell get(int r, int c) {
+        CellType type = cellType(index(r, c));
+        return type == CellType.NUMBER ? new Cell(type, cost(r, c)) : new Cell(type);
     }
 
-    public int height() { 
-        return grid.length; 
+    public int height() {
+        return rows;
     }
 
-    public int width() { 
-        return grid[0].length; 
+    public int width() {
+        return cols;
     }
 
     public Point getStart(){
@@ -86,6 +107,84 @@ public class Maze {
         return goal;
     }
 
+    // primitive accessors
+    public int cellCount() {
+        return rows * cols;
+    }
+
+    public int index(int r, int c) {
+        return r * cols + c;
+    }
+
+    public int row(int index) {
+        return index / cols;
+    }
+
+    public int col(int index) {
+        return index % cols;
+    }
+
+    public int startIndex() {
+        return startIndex;
+    }
+
+    public int goalIndex() {
+        return goalIndex;
+    }
+
+    public boolean isWall(int index) {
+        return (walls.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public boolean isWall(int r, int c) {
+        return isWall(r * cols + c);
+    }
+
+    public boolean isGoal(int r, int c) {
+        return r * cols + c == goalIndex;
+    }
+
+    // cost of entering the cell, 0 for walls, start and goal
+    public int cost(int index) {
+        return narrowCosts == null ? costs.get(index) : narrowCosts.get(index) & 0xFF;
+    }
+
+    public int cost(int r, int c) {
+        return cost(r * cols + c);
+    }
+
+    public int directions(int index) {
+        return directions.get(index);
+    }
+
+    public int maxCost() {
+        int max = 0;
+        for(int index = 0; index < rows * cols; index++){
+            max = Math.max(max, cost(index));
+        }
+        return max;
+    }
+
+    // cheapest open cell other than start and goal, 0 when there is none
+    public int minCost() {
+        int min = Integer.MAX_VALUE;
+        for(int index = 0; index < rows * cols; index++){
+            if(!isWall(index) && index != startIndex && index != goalIndex)
+                min = Math.min(min, cost(index));
+        }
+        return min == Integer.MAX_VALUE ? 0 : min;
+    }
+
+    public CellType cellType(int index) {
+        if (isWall(index))
+            return CellType.WALL;
+        if (index == startIndex)
+            return CellType.START;
+        if (index == goalIndex)
+            return CellType.GOAL;
+        return CellType.NUMBER;
+    }
+
     // show maze
     public void showMaze(List<Point> pathList){
         for(int r = 0;r < height();r++){
@@ -98,52 +197,167 @@ public class Maze {
                         break;
                     }
                 }
-                Cell cell = grid[r][c];
+                CellType type = cellType(index(r, c));
 
-                if(cell.type == CellType.START){
+                if(type == CellType.START){
                     cur = "S";
                 }
-                else if(cell.type == CellType.GOAL){
+                else if(type == CellType.GOAL){
                     cur = "G";
                 }
                 else if(isPath){
-                    if(cell.type == CellType.WALL)
+                    if(type == CellType.WALL)
                         //System.out.println("wall hitted");
                     cur = "-1";
                 }
-                else if(cell.type == CellType.WALL){
+                else if(type == CellType.WALL){
                     cur = "#";
                 }
                 else{
-                    cur = String.valueOf(cell.value);
+                    cur = String.valueOf(cost(r, c));
                 }
                 System.out.printf("%-4s",cur);
             }
             System.out.println();
         }
 }
+
+    // editing
+    // Cells change in place. A search must not run while its maze changes,
+    // and landmark tables, cluster graphs and uniform regions made before a
+    // change are stale. LpaStarAnimatorWrapper edits through these methods
+    // and repairs its search instead of starting over. editCount tells a
+    // cache whether what it made from this maze is still current.
+    public int editCount(){
+        return edits;
+    }
+
+    public void setCost(int index, int cost){
+        checkEditable(index);
+        if(isWall(index))
+            throw new IllegalArgumentException("Cell (" + row(index) + ", " + col(index) + ") is a wall");
+        if(cost < 0 || cost > Character.MAX_VALUE)
+            throw new IllegalArgumentException("Cost " + cost + " is outside 0.." + (int) Character.MAX_VALUE);
+        copyToHeap();
+        edits++;
+        if(narrowCosts != null && cost > 0xFF)
+            widenCosts();
+
+        if(narrowCosts != null)
+            narrowCosts.put(index, (byte) cost);
+        else
+            costs.put(index, (char) cost);
+    }
+
+    public void setWall(int index){
+        checkEditable(index);
+        copyToHeap();
+        edits++;
+        walls.put(index >>> 6, walls.get(index >>> 6) | (1L << index));
+        if(narrowCosts != null)
+            narrowCosts.put(index, (byte) 0);
+        else
+            costs.put(index, (char) 0);
+        updateDirections(index);
+    }
+
+    public void setOpen(int index, int cost){
+        checkEditable(index);
+        copyToHeap();
+        edits++;
+        walls.put(index >>> 6, walls.get(index >>> 6) & ~(1L << index));
+        updateDirections(index);
+        setCost(index, cost);
+    }
+
+    private void checkEditable(int index){
+        if(index < 0 || index >= rows * cols)
+            throw new IllegalArgumentException("Cell " + index + " is outside the maze");
+        if(index == startIndex || index == goalIndex)
+            throw new IllegalArgumentException("Start and goal cannot be edited");
+    }
+
+    // the cell and its neighbours
+    private void updateDirections(int index){
+        int r = row(index);
+        int c = col(index);
+        directions.put(index, (byte) computeDirection(r, c));
+        if(r > 0)
+            directions.put(index - cols, (byte) computeDirection(r - 1, c));
+        if(r < rows - 1)
+            directions.put(index + cols, (byte) computeDirection(r + 1, c));
+        if(c > 0)
+            directions.put(index - 1, (byte) computeDirection(r, c - 1));
+        if(c < cols - 1)
+            directions.put(index + 1, (byte) computeDirection(r, c + 1));
+    }
+
+    // mapped files are read only
+    private void copyToHeap(){
+        if(!walls.isReadOnly())
+            return;
+        int cells = rows * cols;
+        if(narrowCosts != null){
+            byte[] copy = new byte[cells];
+            narrowCosts.duplicate().position(0).get(copy);
+            narrowCosts = ByteBuffer.wrap(copy);
+        } else {
+            char[] copy = new char[cells];
+            costs.duplicate().position(0).get(copy);
+            costs = CharBuffer.wrap(copy);
+        }
+        long[] wallCopy = new long[walls.capacity()];
+        walls.duplicate().position(0).get(wallCopy);
+        walls = LongBuffer.wrap(wallCopy);
+        byte[] directionCopy = new byte[cells];
+        directions.duplicate().position(0).get(directionCopy);
+        directions = ByteBuffer.wrap(directionCopy);
+    }
+
+    private void widenCosts(){
+        char[] wide = new char[rows * cols];
+        for(int index = 0; index < wide.length; index++){
+            wide[index] = (char) (narrowCosts.get(index) & 0xFF);
+        }
+        costs = CharBuffer.wrap(wide);
+        narrowCosts = null;
+    }
+
     // helpers
     public int availableDirection(int y, int x){
+        return directions.get(y * cols + x);
+    }
+
+    private int computeDirection(int y, int x){
         // we will mark the available direction as a bit map 4 bits
         // 0000 with mark as up down left right accordingly
         int available = 0;
 
         // up
-        if(y > 0 && get(y-1, x).type != CellType.WALL)
-            available += 8;
+        if(y > 0 && !isWall(y-1, x))
+            available += UP;
 
         // down
-        if(y < this.height()-1 && get(y+1, x).type != CellType.WALL)
-            available += 4;
+        if(y < this.height()-1 && !isWall(y+1, x))
+            available += DOWN;
 
         // left
-        if(x > 0 && get(y, x-1).type != CellType.WALL)
-            available += 2;
+        if(x > 0 && !isWall(y, x-1))
+            available += LEFT;
 
         // right
-        if(x < this.width()-1 && get(y, x+1).type != CellType.WALL)
-            available += 1;
+        if(x < this.width()-1 && !isWall(y, x+1))
+            available += RIGHT;
 
         return available;
     }
-}
\ No newline at end of file
+
+    // raw storage for MazeBinary
+    LongBuffer wallBits() {
+        return walls.duplicate();
+    }
+
+    ByteBuffer directionBytes() {
+        return directions.duplicate();
+    }
+}
@@ -0,0 +1,197 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Binary maze file that can be memory mapped and used without parsing.
+//
+// All values are little endian:
+//   int magic "MAZB", int version,
+//   int rows, int cols, int startRow, int startCol, int goalRow, int goalCol,
+//   int costWidth (1 or 2 bytes per cell), int reserved
+//   costs      rows * cols * costWidth bytes, padded to 8 bytes
+//   walls      one bit per cell as longs
+//   directions one availableDirection mask byte per cell
+public class MazeBinary {
+    public static final String EXTENSION = ".mazb";
+
+    private static final int MAGIC = 0x42_5A_41_4D; // "MAZB" read little endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+            }
+            return !head.hasRemaining() && head.getInt(0) == MAGIC;
+        }
+    }
+
+    // The grid stays in the read only mapping, in the page cache instead of the heap.
+    public static Maze map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IOException(file + ": too short for a binary maze");
+            if (size > Integer.MAX_VALUE)
+                throw new IOException(file + ": binary mazes are limited to 2 GB");
+
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (data.getInt(0) != MAGIC)
+                throw new IOException(file + ": not a binary maze");
+            if (data.getInt(4) != VERSION)
+                throw new IOException(file + ": unsupported binary maze version " + data.getInt(4));
+
+            int rows = data.getInt(8);
+            int cols = data.getInt(12);
+            int costWidth = data.getInt(32);
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE)
+                throw new IOException(file + ": bad maze size " + rows + "x" + cols);
+            if (costWidth != 1 && costWidth != 2)
+                throw new IOException(file + ": bad cost width " + costWidth);
+
+            int cells = rows * cols;
+            long costsEnd = align(HEADER_SIZE + (long) cells * costWidth);
+            long wallsEnd = costsEnd + 8L * wallWords(cells);
+            if (size != wallsEnd + cells)
+                throw new IOException(file + ": expected " + (wallsEnd + cells) + " bytes but found " + size);
+
+            int startIndex = cellIndex(file, data, 16, rows, cols);
+            int goalIndex = cellIndex(file, data, 24, rows, cols);
+
+            ByteBuffer costBytes = section(data, HEADER_SIZE, HEADER_SIZE + (long) cells * costWidth);
+            LongBuffer walls = section(data, costsEnd, wallsEnd).asLongBuffer();
+            ByteBuffer directions = section(data, wallsEnd, size);
+
+            if (costWidth == 1)
+                return new Maze(rows, cols, null, costBytes, walls, directions, startIndex, goalIndex);
+            return new Maze(rows, cols, costBytes.asCharBuffer(), null, walls, directions, startIndex, goalIndex);
+        }
+    }
+
+    public static void write(Maze maze, Path file) throws IOException {
+        int cells = maze.cellCount();
+        int costWidth = maze.maxCost() <= 0xFF ? 1 : 2;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+            out.putInt(MAGIC).putInt(VERSION).putInt(maze.height()).putInt(maze.width());
+            out.putInt(maze.getStart().x).putInt(maze.getStart().y);
+            out.putInt(maze.getGoal().x).putInt(maze.getGoal().y);
+            out.putInt(costWidth).putInt(0);
+
+            long written = HEADER_SIZE;
+            for (int index = 0; index < cells; index++) {
+                if (out.remaining() < 2)
+                    flush(channel, out);
+                if (costWidth == 1)
+                    out.put((byte) maze.cost(index));
+                else
+                    out.putChar((char) maze.cost(index));
+            }
+            written += (long) cells * costWidth;
+            for (long pad = written; pad < align(written); pad++) {
+                if (!out.hasRemaining())
+                    flush(channel, out);
+                out.put((byte) 0);
+            }
+
+            LongBuffer walls = maze.wallBits();
+            while (walls.hasRemaining()) {
+                if (out.remaining() < 8)
+                    flush(channel, out);
+                out.putLong(walls.get());
+            }
+
+            ByteBuffer directions = maze.directionBytes();
+            while (directions.hasRemaining()) {
+                if (!out.hasRemaining())
+                    flush(channel, out);
+                out.put(directions.get());
+            }
+            flush(channel, out);
+        }
+    }
+
+    // converts text maps to binary: a single file, or every .txt file in a directory
+    //   java -cp bin maze.MazeBinary src/map/m100_100.txt m100_100.mazb
+    //   java -cp bin maze.MazeBinary src/map out/
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MazeBinary <map.txt | map directory> <output file | output directory>");
+            return;
+        }
+
+        Path in = Paths.get(args[0]);
+        Path out = Paths.get(args[1]);
+
+        if (!Files.isDirectory(in)) {
+            convert(in, Files.isDirectory(out) ? out.resolve(binaryName(in)) : out);
+            return;
+        }
+
+        Files.createDirectories(out);
+        try (DirectoryStream<Path> maps = Files.newDirectoryStream(in, "*.txt")) {
+            for (Path map : maps) {
+                convert(map, out.resolve(binaryName(map)));
+            }
+        }
+    }
+
+    private static void convert(Path in, Path out) throws IOException {
+        Maze maze = MazeParser.parse(in);
+        write(maze, out);
+        System.out.println(in + " -> " + out + " (" + maze.height() + "x" + maze.width() + ")");
+    }
+
+    private static String binaryName(Path map) {
+        String name = map.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + EXTENSION;
+    }
+
+    private static int cellIndex(Path file, ByteBuffer data, int offset, int rows, int cols) throws IOException {
+        int r = data.getInt(offset);
+        int c = data.getInt(offset + 4);
+        if (r < 0 || r >= rows || c < 0 || c >= cols)
+            throw new IOException(file + ": cell (" + r + ", " + c + ") is outside the maze");
+        return r * cols + c;
+    }
+
+    private static ByteBuffer section(ByteBuffer data, long from, long to) {
+        ByteBuffer section = data.duplicate();
+        section.position((int) from).limit((int) to);
+        return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private static int wallWords(int cells) {
+        return (cells + 63) >>> 6;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
@@ -0,0 +1,237 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// Single pass parser for the "10"#S...G text format.
+// Numbers are accumulated digit by digit and every cell is written straight
+// into the packed arrays the Maze is built from, nothing is allocated per cell.
+public class MazeParser {
+    private static final int READ_BUFFER = 1 << 16;
+    private static final long MAP_CHUNK = 1L << 30;
+
+    // stop after the first row that repeats the opening border row, this is
+    // how Main knows the maze typed on stdin is complete
+    private final boolean stopAtClosingBorder;
+    private final long sizeHint;
+    private final String source;
+
+    private char[] costs = new char[1024];
+    private long[] walls = new long[16];
+    private int cells = 0;
+    private int rows = 0;
+    private int cols = -1;
+    private int startIndex = -1;
+    private int goalIndex = -1;
+
+    private int line = 1;
+    private int rowCells = 0;
+    private long consumed = 0;
+    private boolean inNumber = false;
+    private int number = 0;
+    private int digits = 0;
+    private boolean finished = false;
+
+    private byte[] firstRow = new byte[256];
+    private int firstRowLength = 0;
+    private int rowPosition = 0;
+    private boolean matchesFirstRow = true;
+
+    private MazeParser(String source, boolean stopAtClosingBorder, long sizeHint) {
+        this.source = source;
+        this.stopAtClosingBorder = stopAtClosingBorder;
+        this.sizeHint = sizeHint;
+    }
+
+    // memory maps the file and parses it in place
+    public static Maze parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MazeParser parser = new MazeParser(file.toString(), false, size);
+            for (long offset = 0; offset < size && !parser.finished; offset += MAP_CHUNK) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(MAP_CHUNK, size - offset));
+                parser.feed(chunk);
+            }
+            return parser.finish();
+        }
+    }
+
+    public static Maze parse(ReadableByteChannel channel) throws IOException {
+        return parse(channel, false);
+    }
+
+    // reads until the row repeating the first row, or until the end of input
+    public static Maze parseUntilClosingBorder(ReadableByteChannel channel) throws IOException {
+        return parse(channel, true);
+    }
+
+    private static Maze parse(ReadableByteChannel channel, boolean stopAtClosingBorder) throws IOException {
+        MazeParser parser = new MazeParser("input", stopAtClosingBorder, -1);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER);
+        while (!parser.finished && channel.read(buffer) >= 0) {
+            buffer.flip();
+            parser.feed(buffer);
+            buffer.clear();
+        }
+        return parser.finish();
+    }
+
+    public static Maze parse(List<String> lines) throws IOException {
+        MazeParser parser = new MazeParser("input", false, -1);
+        for (String text : lines) {
+            for (int i = 0; i < text.length() && !parser.finished; i++) {
+                parser.accept(text.charAt(i));
+            }
+            parser.accept('\n');
+        }
+        return parser.finish();
+    }
+
+    private void feed(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && !finished) {
+            accept(buffer.get());
+        }
+    }
+
+    private void accept(int ch) throws IOException {
+        consumed++;
+        if (ch == '\n') {
+            endRow();
+            return;
+        }
+        if (ch == '\r')
+            return;
+
+        rememberRowByte(ch);
+
+        if (inNumber) {
+            if (ch == '"') {
+                if (digits == 0)
+                    throw error("empty number cell");
+                addCell(number, false);
+                inNumber = false;
+            } else if (ch >= '0' && ch <= '9') {
+                number = number * 10 + (ch - '0');
+                digits++;
+                if (number > Character.MAX_VALUE)
+                    throw error("cell cost is larger than " + (int) Character.MAX_VALUE);
+            } else {
+                throw error("unexpected '" + (char) ch + "' inside a number cell");
+            }
+            return;
+        }
+
+        // anything else outside a cell is ignored, like the old parser did
+        if (ch == '"') {
+            inNumber = true;
+            number = 0;
+            digits = 0;
+        } else if (ch == '#') {
+            addCell(0, true);
+        } else if (ch == 'S') {
+            if (startIndex >= 0)
+                throw error("second start cell");
+            startIndex = cells;
+            addCell(0, false);
+        } else if (ch == 'G') {
+            if (goalIndex >= 0)
+                throw error("second goal cell");
+            goalIndex = cells;
+            addCell(0, false);
+        }
+    }
+
+    private void addCell(int cost, boolean wall) throws IOException {
+        if (cols >= 0 && rowCells == cols)
+            throw error("row has more than " + cols + " cells");
+        if (cells == costs.length)
+            grow();
+
+        costs[cells] = (char) cost;
+        if (wall)
+            walls[cells >>> 6] |= 1L << cells;
+        cells++;
+        rowCells++;
+    }
+
+    private void grow() {
+        long capacity = (long) costs.length * 2;
+        // the share of the file read so far gives a good guess of the cell count
+        if (sizeHint > 0) {
+            long estimate = (long) (cells * ((double) sizeHint / consumed) * 1.05);
+            capacity = Math.max(estimate, cells + 1024L);
+        }
+        capacity = Math.min(capacity, Integer.MAX_VALUE - 8);
+        costs = Arrays.copyOf(costs, (int) capacity);
+        walls = Arrays.copyOf(walls, (int) ((capacity + 63) >>> 6));
+    }
+
+    private void endRow() throws IOException {
+        if (inNumber)
+            throw error("number cell is not closed");
+
+        if (rowCells > 0) {
+            if (cols < 0) {
+                cols = rowCells;
+            } else if (rowCells != cols) {
+                throw error("row has " + rowCells + " cells, expected " + cols + " like the first row");
+            }
+            rows++;
+
+            if (stopAtClosingBorder && rows > 1 && matchesFirstRow && rowPosition == firstRowLength)
+                finished = true;
+        } else if (rows == 0) {
+            // blank lines before the maze are not the border row
+            firstRowLength = 0;
+        }
+
+        line++;
+        rowCells = 0;
+        rowPosition = 0;
+        matchesFirstRow = true;
+    }
+
+    private void rememberRowByte(int ch) {
+        if (!stopAtClosingBorder)
+            return;
+
+        if (rows == 0) {
+            if (firstRowLength == firstRow.length)
+                firstRow = Arrays.copyOf(firstRow, firstRowLength * 2);
+            firstRow[firstRowLength++] = (byte) ch;
+        } else if (matchesFirstRow) {
+            matchesFirstRow = rowPosition < firstRowLength && firstRow[rowPosition] == (byte) ch;
+        }
+        rowPosition++;
+    }
+
+    private Maze finish() throws IOException {
+        if (!finished)
+            endRow();
+
+        if (rows == 0)
+            throw new IOException(source + ": no maze rows found");
+        if (startIndex < 0)
+            throw new IOException(source + ": maze has no start cell 'S'");
+        if (goalIndex < 0)
+            throw new IOException(source + ": maze has no goal cell 'G'");
+
+        if (costs.length != cells) {
+            costs = Arrays.copyOf(costs, cells);
+            walls = Arrays.copyOf(walls, (cells + 63) >>> 6);
+        }
+        return new Maze(rows, cols, costs, walls, startIndex, goalIndex);
+    }
+
+    private IOException error(String message) {
+        return new IOException(source + " line " + line + ": " + message);
+    }
+}
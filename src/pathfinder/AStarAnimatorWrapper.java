@@ -1,20 +1,23 @@
 package pathfinder;
 
 import maze.Maze;
-import maze.CellType;
 import java.awt.Point;
 import java.util.*;
 
 public class AStarAnimatorWrapper implements AnimatablePathfinder {
     private final Maze maze;
-    private final PriorityQueue<Node> pq;
-    private final int[][] path;
+    private final IndexedMinHeap pq;
+    private final int[] path;      // best known cost by cell index
+    private final int[] from;      // previous cell on that path, -1 for none
     private final Set<Point> closedSet;
+    private final ChangeFeed changes = new ChangeFeed();
     private final int rows, cols;
     private boolean finished = false;
     private List<Point> finalPath = Collections.emptyList();
     private int totalCost = -1;
     private final Point goal;
+    private final Heuristic heuristic;
+    private final String name;
 
     // {up,down,left,right}
     private final int[] dRow = { -1, 1, 0, 0 };
@@ -22,32 +25,43 @@ public class AStarAnimatorWrapper implements AnimatablePathfinder {
     private final int[] bits = { 8, 4, 2, 1 };
 
     public AStarAnimatorWrapper(Maze maze) {
+        this(maze, null, "A* Algorithm");
+    }
+
+    // plain Manhattan distance to the goal when heuristic is null
+    public AStarAnimatorWrapper(Maze maze, Heuristic heuristic, String name) {
         this.maze = maze;
+        this.heuristic = heuristic;
+        this.name = name;
         this.rows = maze.height();
         this.cols = maze.width();
-        this.path = new int[rows][cols];
+        this.path = new int[maze.cellCount()];
+        this.from = new int[maze.cellCount()];
         this.closedSet = new HashSet<>();
         this.goal = maze.getGoal();
 
-        for (int i = 0; i < rows; i++) {
-            Arrays.fill(path[i], Integer.MAX_VALUE);
-        }
+        Arrays.fill(path, Integer.MAX_VALUE);
 
-        this.pq = new PriorityQueue<>();
+        this.pq = new IndexedMinHeap(maze.cellCount());
         Point start = maze.getStart();
-        path[start.x][start.y] = 0;
+        int startIndex = maze.startIndex();
+        path[startIndex] = 0;
+        from[startIndex] = -1;
      
-        int h = Math.abs(start.x - goal.x) + Math.abs(start.y - goal.y);
-        pq.add(new Node(start.x, start.y, 0, h, null)); 
+        int h = heuristic(start.x, start.y);
+        pq.insertOrDecrease(startIndex, h); 
+        changes.opened(startIndex);
     }
 
     private int heuristic(int r, int c) {
+        if (heuristic != null)
+            return heuristic.estimate(r * cols + c, maze.goalIndex());
         return Math.abs(r - goal.x) + Math.abs(c - goal.y);
     }
 
     @Override
     public String getName() {
-        return "A* Algorithm";
+        return name;
     }
 
     @Override
@@ -68,8 +82,9 @@ public class AStarAnimatorWrapper implements AnimatablePathfinder {
     @Override
     public Set<Point> getOpenSet() {
         Set<Point> openSet = new HashSet<>();
-        for (Node node : pq) {
-            openSet.add(new Point(node.r, node.c));
+        for (int i = 0; i < pq.size(); i++) {
+            int cell = pq.keyAt(i);
+            openSet.add(new Point(maze.row(cell), maze.col(cell)));
         }
         return openSet;
     }
@@ -79,6 +94,11 @@ public class AStarAnimatorWrapper implements AnimatablePathfinder {
         return closedSet;
     }
 
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
+    }
+
     @Override
     public void nextStep() {
         if (finished || pq.isEmpty()) {
@@ -86,47 +106,50 @@ public class AStarAnimatorWrapper implements AnimatablePathfinder {
             return;
         }
 
-        Node current = pq.poll();
+        int current = pq.poll();
+        int r = maze.row(current);
+        int c = maze.col(current);
 
-        if (maze.get(current.r, current.c).type == CellType.GOAL) {
+        if (current == maze.goalIndex()) {
             finished = true;
-            totalCost = current.pTimes;
+            totalCost = path[current];
             finalPath = new ArrayList<>();
-            Node trace = current;
-            while (trace != null) {
-                finalPath.add(new Point(trace.r, trace.c));
-                trace = trace.from;
+            for (int trace = current; trace >= 0; trace = from[trace]) {
+                finalPath.add(new Point(maze.row(trace), maze.col(trace)));
+                changes.pathed(trace);
             }
             Collections.reverse(finalPath);
             return;
         }
 
-        if (current.pTimes > path[current.r][current.c]) {
-            return;
-        }
-
-        closedSet.add(new Point(current.r, current.c));
+        closedSet.add(new Point(r, c));
+        changes.closed(current);
 
-        int available = maze.availableDirection(current.r, current.c);
+        int available = maze.directions(current);
 
         for (int i = 0; i < 4; i++) {
             if ((available & bits[i]) != 0) {
-                int newR = current.r + dRow[i];
-                int newC = current.c + dCol[i];
+                int newR = r + dRow[i];
+                int newC = c + dCol[i];
 
                 if (newR < 0 || newR >= rows || newC < 0 || newC >= cols) {
                     continue;
                 }
 
-                int newpTimes = current.pTimes + maze.get(newR, newC).value;
+                int next = newR * cols + newC;
+                int newpTimes = path[current] + maze.cost(next);
 
-                if (newpTimes < path[newR][newC]) {
-                    path[newR][newC] = newpTimes;
+                // a closed cell found again through a cheaper path is queued again
+                if (newpTimes < path[next]) {
+                    if (path[next] == Integer.MAX_VALUE)
+                        changes.opened(next);
+                    path[next] = newpTimes;
+                    from[next] = current;
                     int h = heuristic(newR, newC);
                     int f = newpTimes + h;
-                    pq.add(new Node(newR, newC, newpTimes, f, current));
+                    pq.insertOrDecrease(next, f);
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
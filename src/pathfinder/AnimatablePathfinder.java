@@ -21,6 +21,17 @@ public interface AnimatablePathfinder {
 
     
     int getTotalCost();
+
+    // cells expanded so far, engines that count expansions differently override this
+    default int getExpandedCount() {
+        return getClosedSet().size();
+    }
+
+    // cells opened, closed and pathed, read through a ChangeFeed.Reader;
+    // null when the engine keeps no feed and callers have to read the sets
+    default ChangeFeed changeFeed() {
+        return null;
+    }
     
    
     String getName();
@@ -0,0 +1,219 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+
+// Dijkstra from the start and from the goal at the same time.
+//
+// Moving onto a cell costs that cell's value, so the backward search gives
+// a cell v the cost of the path v -> ... -> goal excluding v itself: when it
+// expands v it offers a neighbour u the cost cost(v) + toGoal[v]. A path
+// through the edge u -> v then costs fromStart[u] + cost(v) + toGoal[v].
+// The search stops once the two smallest queued costs add up to at least
+// the best such path found so far.
+public class BidirectionalDijkstraAnimatorWrapper implements AnimatablePathfinder {
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final int cols;
+
+    private final IndexedMinHeap forward, backward;
+    private final int[] fromStart, toGoal;   // best known costs by cell index
+    private final int[] prevCell, nextCell;  // neighbour towards start / goal, -1 for none
+    private final Set<Point> closedSet = new HashSet<>();
+    private final ChangeFeed changes = new ChangeFeed();
+    private int expanded = 0;
+
+    // best meeting edge u -> v
+    private int bestCost = INF;
+    private int meetFrom = -1, meetTo = -1;
+
+    private boolean finished = false;
+    private List<Point> finalPath = Collections.emptyList();
+    private int totalCost = -1;
+
+    // {up,down,left,right}
+    private final int[] dRow = { -1, 1, 0, 0 };
+    private final int[] dCol = { 0, 0, -1, 1 };
+    private final int[] bits = { 8, 4, 2, 1 };
+
+    public BidirectionalDijkstraAnimatorWrapper(Maze maze) {
+        this.maze = maze;
+        this.cols = maze.width();
+
+        int cells = maze.cellCount();
+        forward = new IndexedMinHeap(cells);
+        backward = new IndexedMinHeap(cells);
+        fromStart = new int[cells];
+        toGoal = new int[cells];
+        prevCell = new int[cells];
+        nextCell = new int[cells];
+        Arrays.fill(fromStart, INF);
+        Arrays.fill(toGoal, INF);
+
+        int start = maze.startIndex();
+        int goal = maze.goalIndex();
+        fromStart[start] = 0;
+        prevCell[start] = -1;
+        toGoal[goal] = 0;
+        nextCell[goal] = -1;
+        forward.insertOrDecrease(start, 0);
+        backward.insertOrDecrease(goal, 0);
+        changes.opened(start);
+        changes.opened(goal);
+
+        if (start == goal) {
+            bestCost = 0;
+            meetFrom = meetTo = start;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Bidirectional Dijkstra";
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int getTotalCost() {
+        return totalCost;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public List<Point> getPath() {
+        return finished ? finalPath : Collections.emptyList();
+    }
+
+    // both frontiers
+    @Override
+    public Set<Point> getOpenSet() {
+        Set<Point> openSet = new HashSet<>();
+        forward.forEach(cell -> openSet.add(new Point(maze.row(cell), maze.col(cell))));
+        backward.forEach(cell -> openSet.add(new Point(maze.row(cell), maze.col(cell))));
+        return openSet;
+    }
+
+    @Override
+    public Set<Point> getClosedSet() {
+        return closedSet;
+    }
+
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
+    }
+
+    @Override
+    public void nextStep() {
+        if (finished)
+            return;
+
+        if (forward.isEmpty() || backward.isEmpty()
+                || (long) forward.priority(forward.peek()) + backward.priority(backward.peek()) >= bestCost) {
+            finish();
+            return;
+        }
+
+        // grow the smaller frontier
+        if (forward.size() <= backward.size())
+            expandForward();
+        else
+            expandBackward();
+    }
+
+    private void expandForward() {
+        int current = forward.poll();
+        int r = maze.row(current);
+        int c = maze.col(current);
+        closedSet.add(new Point(r, c));
+        changes.closed(current);
+        expanded++;
+
+        int available = maze.directions(current);
+        for (int i = 0; i < 4; i++) {
+            if ((available & bits[i]) == 0)
+                continue;
+
+            int next = (r + dRow[i]) * cols + (c + dCol[i]);
+            int newCost = fromStart[current] + maze.cost(next);
+
+            if (newCost < fromStart[next]) {
+                if (fromStart[next] == INF)
+                    changes.opened(next);
+                fromStart[next] = newCost;
+                prevCell[next] = current;
+                forward.insertOrDecrease(next, newCost);
+            }
+            if (toGoal[next] != INF)
+                meet(current, next);
+        }
+    }
+
+    private void expandBackward() {
+        int current = backward.poll();
+        int r = maze.row(current);
+        int c = maze.col(current);
+        closedSet.add(new Point(r, c));
+        changes.closed(current);
+        expanded++;
+
+        // neighbours reach the goal by stepping onto current first
+        int newCost = maze.cost(current) + toGoal[current];
+        int available = maze.directions(current);
+        for (int i = 0; i < 4; i++) {
+            if ((available & bits[i]) == 0)
+                continue;
+
+            int prev = (r + dRow[i]) * cols + (c + dCol[i]);
+
+            if (newCost < toGoal[prev]) {
+                if (toGoal[prev] == INF)
+                    changes.opened(prev);
+                toGoal[prev] = newCost;
+                nextCell[prev] = current;
+                backward.insertOrDecrease(prev, newCost);
+            }
+            if (fromStart[prev] != INF)
+                meet(prev, current);
+        }
+    }
+
+    private void meet(int u, int v) {
+        long cost = (long) fromStart[u] + maze.cost(v) + toGoal[v];
+        if (cost < bestCost) {
+            bestCost = (int) cost;
+            meetFrom = u;
+            meetTo = v;
+        }
+    }
+
+    private void finish() {
+        finished = true;
+        if (bestCost == INF)
+            return;
+
+        totalCost = bestCost;
+        finalPath = new ArrayList<>();
+        for (int trace = meetFrom; trace >= 0; trace = prevCell[trace]) {
+            finalPath.add(new Point(maze.row(trace), maze.col(trace)));
+            changes.pathed(trace);
+        }
+        Collections.reverse(finalPath);
+        if (meetTo != meetFrom) {
+            for (int trace = meetTo; trace >= 0; trace = nextCell[trace]) {
+                finalPath.add(new Point(maze.row(trace), maze.col(trace)));
+                changes.pathed(trace);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package pathfinder;
+
+import maze.Maze;
+
+// Dijkstra on Dial's bucket queue. Cell costs in the maps are small
+// integers, so buckets indexed by distance replace the comparison heap.
+// Mazes with very large costs fall back to the indexed heap.
+public class BucketDijkstraAnimatorWrapper extends DijkstraAnimatorWrapper {
+    // above this many buckets scanning empty buckets costs more than the heap
+    private static final int MAX_BUCKETS = 1 << 12;
+
+    private final boolean bucketed;
+
+    public BucketDijkstraAnimatorWrapper(Maze maze) {
+        this(maze, maze.maxCost());
+    }
+
+    private BucketDijkstraAnimatorWrapper(Maze maze, int maxCost) {
+        super(maze, createQueue(maze, maxCost));
+        this.bucketed = maxCost < MAX_BUCKETS;
+    }
+
+    private static CellPriorityQueue createQueue(Maze maze, int maxCost) {
+        if (maxCost < MAX_BUCKETS)
+            return new BucketQueue(maze.cellCount(), maxCost);
+        return new IndexedMinHeap(maze.cellCount());
+    }
+
+    @Override
+    public String getName() {
+        return bucketed ? "Dijkstra (Bucket Queue)" : "Dijkstra (Heap, costs too large for buckets)";
+    }
+}
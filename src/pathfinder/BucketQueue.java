@@ -0,0 +1,115 @@
+package pathfinder;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Dial's bucket queue for Dijkstra on small integer costs.
+// Every priority pushed lies between the last polled one and that plus
+// maxStep, so maxStep + 1 circular buckets are enough. Each bucket is an
+// intrusive doubly linked list over the keys, which makes decrease-key O(1)
+// and keeps the queue free of allocations.
+//
+// Keys of equal priority come out first in, first out. IndexedMinHeap
+// breaks those ties by heap position instead, so Dijkstra on either queue
+// finds the same cost but, where several paths share it, not always the
+// same path.
+public class BucketQueue implements CellPriorityQueue {
+    private final int[] head;      // first key by bucket, -1 when empty
+    private final int[] tail;      // last key by bucket
+    private final int[] next;
+    private final int[] prev;
+    private final int[] priority;
+    private final boolean[] queued;
+    private int size = 0;
+    // lowest priority that can still be queued: the last one polled, or a
+    // lower one pushed since; kept when the queue runs empty
+    private int current = Integer.MAX_VALUE;
+
+    public BucketQueue(int capacity, int maxStep) {
+        head = new int[maxStep + 1];
+        tail = new int[maxStep + 1];
+        next = new int[capacity];
+        prev = new int[capacity];
+        priority = new int[capacity];
+        queued = new boolean[capacity];
+        Arrays.fill(head, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int key) {
+        return queued[key];
+    }
+
+    @Override
+    public void insertOrDecrease(int key, int newPriority) {
+        if (queued[key]) {
+            if (newPriority >= priority[key])
+                return;
+            unlink(key);
+        }
+        current = Math.min(current, newPriority);
+        link(key, newPriority);
+    }
+
+    @Override
+    public int poll() {
+        int bucket = current % head.length;
+        while (head[bucket] < 0) {
+            current++;
+            bucket = current % head.length;
+        }
+        int key = head[bucket];
+        unlink(key);
+        return key;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int bucket = 0; bucket < head.length; bucket++) {
+            for (int key = head[bucket]; key >= 0; key = next[key]) {
+                action.accept(key);
+            }
+        }
+    }
+
+    // appends at the tail, so a bucket polls in the order keys came in
+    private void link(int key, int newPriority) {
+        int bucket = newPriority % head.length;
+        priority[key] = newPriority;
+        next[key] = -1;
+        if (head[bucket] >= 0) {
+            prev[key] = tail[bucket];
+            next[tail[bucket]] = key;
+        } else {
+            prev[key] = -1;
+            head[bucket] = key;
+        }
+        tail[bucket] = key;
+        queued[key] = true;
+        size++;
+    }
+
+    private void unlink(int key) {
+        int bucket = priority[key] % head.length;
+        if (prev[key] >= 0)
+            next[prev[key]] = next[key];
+        else
+            head[bucket] = next[key];
+        if (next[key] >= 0)
+            prev[next[key]] = prev[key];
+        else
+            tail[bucket] = prev[key];
+        queued[key] = false;
+        size--;
+    }
+}
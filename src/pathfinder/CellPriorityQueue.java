@@ -0,0 +1,20 @@
+package pathfinder;
+
+import java.util.function.IntConsumer;
+
+// Open set of the shortest path engines, keyed by cell index.
+public interface CellPriorityQueue {
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(int key);
+
+    // adds the key, or lowers its priority when it is already queued with a higher one
+    void insertOrDecrease(int key, int priority);
+
+    // removes and returns the key with the lowest priority
+    int poll();
+
+    void forEach(IntConsumer action);
+}
@@ -0,0 +1,132 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.Arrays;
+
+// Every cell's state in a running search, open, closed or on the path,
+// kept up to date from the engine's ChangeFeed when it has one and from
+// its sets otherwise. A cell shows its strongest state: path over closed
+// over open. update() also lists the cells it changed, each once.
+//
+// Must run on the thread that steps the solver. close() it when done, from
+// any thread, so the feed stops keeping changes for it.
+public class CellStates {
+    public static final byte NONE = 0;
+    public static final byte OPEN = 1;
+    public static final byte CLOSED = 2;
+    public static final byte PATH = 3;
+
+    private final Maze maze;
+    private final AnimatablePathfinder solver;
+    private final byte[] states;    // by cell index
+    private final ChangeFeed.Reader reader; // null when the engine keeps no feed
+    private byte[] next;            // states read from the sets, reused
+    private int openCount = 0, closedCount = 0;
+
+    // cells changed by the last update, stamp marks them by round
+    private final int[] stamp;
+    private int round = 0;
+    private int[] changed = new int[64];
+    private int changedCount = 0;
+
+    public CellStates(Maze maze, AnimatablePathfinder solver) {
+        this.maze = maze;
+        this.solver = solver;
+        this.states = new byte[maze.cellCount()];
+        this.stamp = new int[maze.cellCount()];
+        ChangeFeed feed = solver.changeFeed();
+        this.reader = feed != null ? feed.reader() : null;
+    }
+
+    public void update() {
+        round++;
+        changedCount = 0;
+
+        ChangeFeed.Changes changes = reader != null ? reader.poll() : null;
+        if (changes == null) {
+            updateFromSets();
+            return;
+        }
+
+        raise(changes.opened, OPEN);
+        raise(changes.closed, CLOSED);
+        raise(changes.pathed, PATH);
+    }
+
+    public void close() {
+        if (reader != null)
+            reader.close();
+    }
+
+    // feed engines only ever move a cell up, open to closed to path
+    private void raise(int[] cells, byte state) {
+        for (int index : cells) {
+            if (states[index] < state)
+                set(index, state);
+        }
+    }
+
+    private void updateFromSets() {
+        if (next == null)
+            next = new byte[states.length];
+        else
+            Arrays.fill(next, NONE);
+        mark(next, solver.getOpenSet(), OPEN);
+        mark(next, solver.getClosedSet(), CLOSED);
+        mark(next, solver.getPath(), PATH);
+        for (int index = 0; index < states.length; index++) {
+            if (next[index] != states[index])
+                set(index, next[index]);
+        }
+    }
+
+    private void mark(byte[] next, Iterable<Point> cells, byte state) {
+        for (Point p : cells) {
+            if (p.x >= 0 && p.x < maze.height() && p.y >= 0 && p.y < maze.width())
+                next[maze.index(p.x, p.y)] = state;
+        }
+    }
+
+    private void set(int index, byte state) {
+        byte old = states[index];
+        if (old == OPEN)
+            openCount--;
+        else if (old == CLOSED)
+            closedCount--;
+        if (state == OPEN)
+            openCount++;
+        else if (state == CLOSED)
+            closedCount++;
+        states[index] = state;
+
+        if (stamp[index] != round) {
+            stamp[index] = round;
+            if (changedCount == changed.length)
+                changed = Arrays.copyOf(changed, changedCount * 2);
+            changed[changedCount++] = index;
+        }
+    }
+
+    public byte state(int index) {
+        return states[index];
+    }
+
+    public int openCount() {
+        return openCount;
+    }
+
+    public int closedCount() {
+        return closedCount;
+    }
+
+    // cells the last update changed, in no particular order; a cell can
+    // end up back in the state it started from
+    public int changedCount() {
+        return changedCount;
+    }
+
+    public int changed(int i) {
+        return changed[i];
+    }
+}
@@ -0,0 +1,160 @@
+package pathfinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cells a search opened, closed or put on its path, in the order it did
+// so, for callers that would otherwise copy the open and closed sets on
+// every step. The version is the number of changes so far. Each caller
+// takes a Reader, which keeps the version it read up to, and polls for what
+// came after, which costs the changes instead of the whole frontier.
+//
+// The log only holds what some reader has not read yet: a poll drops what
+// every open reader has read, and with no readers nothing is kept at all,
+// so memory is bounded by the unread changes. A reader opened after the
+// first change has missed some, its first poll returns null and it reads
+// the sets once instead.
+//
+// Only engines whose sets never lose a cell keep a feed, so a reader can
+// apply the changes in any order as long as path beats closed beats open.
+// None of them starts over, so the feed never drops cells a reader has.
+//
+// Must run on the thread that steps the solver, except Reader.close().
+public class ChangeFeed {
+    public static final int OPENED = 0;
+    public static final int CLOSED = 1;
+    public static final int PATHED = 2;
+
+    private static final int MIN_LOG = 256;
+
+    private int[] log = new int[MIN_LOG];  // cell index << 2 | kind
+    private int size = 0;
+    private long base = 0;             // version of log[0]
+    private final List<Reader> readers = new ArrayList<>();
+
+    public static final class Changes {
+        public final long version;     // the version read up to
+        public final int[] opened;
+        public final int[] closed;
+        public final int[] pathed;
+
+        Changes(long version, int[] opened, int[] closed, int[] pathed) {
+            this.version = version;
+            this.opened = opened;
+            this.closed = closed;
+            this.pathed = pathed;
+        }
+    }
+
+    public final class Reader {
+        private long version;
+        private boolean synced;         // false until the caller has read the sets once
+        private volatile boolean closed = false;
+
+        private Reader() {
+            version = version();
+            synced = version == 0;
+        }
+
+        // everything since the last poll; null when the caller has to read
+        // the sets, the first time or after close()
+        public Changes poll() {
+            if (closed)
+                return null;
+            if (!synced) {
+                synced = true;
+                version = version();
+                trim();
+                return null;
+            }
+            Changes changes = since(version);
+            version = changes.version;
+            trim();
+            return changes;
+        }
+
+        // the feed stops keeping changes for this reader, from any thread
+        public void close() {
+            closed = true;
+        }
+    }
+
+    public Reader reader() {
+        Reader reader = new Reader();
+        readers.add(reader);
+        return reader;
+    }
+
+    public void opened(int index) {
+        add(index << 2 | OPENED);
+    }
+
+    public void closed(int index) {
+        add(index << 2 | CLOSED);
+    }
+
+    public void pathed(int index) {
+        add(index << 2 | PATHED);
+    }
+
+    private void add(int change) {
+        if (readers.isEmpty()) {
+            base++;     // nobody to read it, only the version moves on
+            return;
+        }
+        if (size == log.length) {
+            trim();     // readers closed since the last poll may free it all
+            if (size == log.length)
+                log = Arrays.copyOf(log, size * 2);
+        }
+        log[size++] = change;
+    }
+
+    public long version() {
+        return base + size;
+    }
+
+    // changes kept for readers that have not read them
+    int logged() {
+        return size;
+    }
+
+    // a reader's version is never below base, trim() stops at the oldest
+    private Changes since(long version) {
+        int from = (int) (version - base);
+
+        int[] counts = new int[3];
+        for (int i = from; i < size; i++) {
+            counts[log[i] & 3]++;
+        }
+        int[][] cells = { new int[counts[OPENED]], new int[counts[CLOSED]], new int[counts[PATHED]] };
+        Arrays.fill(counts, 0);
+        for (int i = from; i < size; i++) {
+            int kind = log[i] & 3;
+            cells[kind][counts[kind]++] = log[i] >>> 2;
+        }
+        return new Changes(version(), cells[OPENED], cells[CLOSED], cells[PATHED]);
+    }
+
+    // drops closed readers and the changes every open reader has read
+    private void trim() {
+        long oldest = version();
+        for (int i = readers.size() - 1; i >= 0; i--) {
+            Reader reader = readers.get(i);
+            if (reader.closed)
+                readers.remove(i);
+            else
+                oldest = Math.min(oldest, reader.version);
+        }
+        int read = (int) (oldest - base);
+        if (read == 0)
+            return;
+        size -= read;
+        if (log.length > MIN_LOG && size < log.length / 4)
+            log = Arrays.copyOfRange(log, read, read + Math.max(MIN_LOG, log.length / 2));
+        else
+            System.arraycopy(log, read, log, 0, size);
+        base += read;
+    }
+}
@@ -0,0 +1,325 @@
+package pathfinder;
+
+import maze.Maze;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Abstract graph for hierarchical search (HPA*), built once per maze and
+// shared by every query on it, see HierarchicalAnimatorWrapper.
+//
+// The grid is cut into square clusters. Open cells facing each other across
+// a cluster border become entrance nodes, joined by an edge that costs the
+// cell being entered. Inside each cluster every entrance gets a directed
+// edge to every other entrance it can reach, costing the cheapest path that
+// stays in the cluster.
+//
+// In exact mode every border cell with an open neighbour across the border
+// is an entrance, so the abstract graph keeps every shortest path. In fast
+// mode each run of open border pairs only gets the transition in its middle,
+// which leaves far fewer nodes at the price of slightly longer paths.
+public class ClusterGraph {
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+    private final Maze maze;
+    private final int rows, cols;
+    private final int clusterSize, clusterRows, clusterCols;
+    private final boolean exact;
+
+    private int[] nodeCell = new int[256];       // cell index by node
+    private int nodeCount = 0;
+    private final Map<Integer, Integer> nodeOfCell = new HashMap<>();
+
+    // cross border edges while building, as pairs of nodes, then indexed
+    // by node: the targets of node n are crossTarget[crossStart[n] ..]
+    private int[] crossing = new int[256];
+    private int crossingCount = 0;
+    private int[] crossStart, crossTarget;
+
+    private final int[][] clusterNodes;          // node ids by cluster
+    private int[][] edgeTo, edgeCost;            // outgoing edges by node
+
+    public ClusterGraph(Maze maze, int clusterSize, boolean exact) {
+        if (clusterSize < 1)
+            throw new IllegalArgumentException("cluster size must be at least 1");
+        this.maze = maze;
+        this.rows = maze.height();
+        this.cols = maze.width();
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+        this.exact = exact;
+
+        findEntrances();
+        this.clusterNodes = groupByCluster();
+        indexCrossings();
+
+        // clusters only write the edges of their own nodes
+        edgeTo = new int[nodeCount][];
+        edgeCost = new int[nodeCount][];
+        IntStream.range(0, clusterCount()).parallel().forEach(this::connectCluster);
+        crossing = crossStart = crossTarget = null;
+    }
+
+    public Maze maze() {
+        return maze;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int clusterCount() {
+        return clusterRows * clusterCols;
+    }
+
+    public int cellOf(int node) {
+        return nodeCell[node];
+    }
+
+    // node on the given cell, -1 when the cell is no entrance
+    public int nodeAt(int index) {
+        Integer node = nodeOfCell.get(index);
+        return node == null ? -1 : node;
+    }
+
+    public int clusterOf(int index) {
+        return (index / cols) / clusterSize * clusterCols + (index % cols) / clusterSize;
+    }
+
+    public int[] nodesIn(int cluster) {
+        return clusterNodes[cluster];
+    }
+
+    public int[] edgeTargets(int node) {
+        return edgeTo[node];
+    }
+
+    public int[] edgeCosts(int node) {
+        return edgeCost[node];
+    }
+
+    public LocalSearch newLocalSearch() {
+        return new LocalSearch();
+    }
+
+    private void findEntrances() {
+        // borders between cluster rows, stepping down
+        for (int cr = 0; cr + 1 < clusterRows; cr++) {
+            int r = (cr + 1) * clusterSize - 1;
+            for (int cc = 0; cc < clusterCols; cc++) {
+                int first = cc * clusterSize;
+                int last = Math.min(cols, first + clusterSize) - 1;
+                int runStart = -1;
+                for (int c = first; c <= last + 1; c++) {
+                    boolean open = c <= last && facesOpenCell(r * cols + c, 4);
+                    if (open && runStart < 0)
+                        runStart = c;
+                    if (!open && runStart >= 0) {
+                        addRun(r * cols + runStart, 1, c - runStart, cols);
+                        runStart = -1;
+                    }
+                }
+            }
+        }
+
+        // borders between cluster columns, stepping right
+        for (int cc = 0; cc + 1 < clusterCols; cc++) {
+            int c = (cc + 1) * clusterSize - 1;
+            for (int cr = 0; cr < clusterRows; cr++) {
+                int first = cr * clusterSize;
+                int last = Math.min(rows, first + clusterSize) - 1;
+                int runStart = -1;
+                for (int r = first; r <= last + 1; r++) {
+                    boolean open = r <= last && facesOpenCell(r * cols + c, 1);
+                    if (open && runStart < 0)
+                        runStart = r;
+                    if (!open && runStart >= 0) {
+                        addRun(runStart * cols + c, cols, r - runStart, 1);
+                        runStart = -1;
+                    }
+                }
+            }
+        }
+    }
+
+    // wall cells keep the mask of their open neighbours, so check the cell too
+    private boolean facesOpenCell(int index, int direction) {
+        return !maze.isWall(index) && (maze.directions(index) & direction) != 0;
+    }
+
+    // a run of length open pairs starting at cell first, the other side is
+    // across cells further on
+    private void addRun(int first, int step, int length, int across) {
+        if (exact) {
+            for (int i = 0; i < length; i++) {
+                int cell = first + i * step;
+                addCrossing(cell, cell + across);
+            }
+        } else {
+            int cell = first + (length / 2) * step;
+            addCrossing(cell, cell + across);
+        }
+    }
+
+    private void addCrossing(int a, int b) {
+        if (crossingCount + 2 > crossing.length)
+            crossing = Arrays.copyOf(crossing, crossing.length * 2);
+        crossing[crossingCount++] = node(a);
+        crossing[crossingCount++] = node(b);
+    }
+
+    private int node(int index) {
+        Integer node = nodeOfCell.get(index);
+        if (node != null)
+            return node;
+        if (nodeCount == nodeCell.length)
+            nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+        nodeCell[nodeCount] = index;
+        nodeOfCell.put(index, nodeCount);
+        return nodeCount++;
+    }
+
+    private int[][] groupByCluster() {
+        int[] counts = new int[clusterCount()];
+        for (int node = 0; node < nodeCount; node++) {
+            counts[clusterOf(nodeCell[node])]++;
+        }
+        int[][] nodes = new int[clusterCount()][];
+        for (int k = 0; k < nodes.length; k++) {
+            nodes[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            int k = clusterOf(nodeCell[node]);
+            nodes[k][counts[k]++] = node;
+        }
+        return nodes;
+    }
+
+    private void indexCrossings() {
+        crossStart = new int[nodeCount + 1];
+        for (int i = 0; i < crossingCount; i++) {
+            crossStart[crossing[i] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            crossStart[node + 1] += crossStart[node];
+        }
+        int[] fill = Arrays.copyOf(crossStart, nodeCount);
+        crossTarget = new int[crossingCount];
+        for (int i = 0; i < crossingCount; i += 2) {
+            crossTarget[fill[crossing[i]]++] = crossing[i + 1];
+            crossTarget[fill[crossing[i + 1]]++] = crossing[i];
+        }
+    }
+
+    private void connectCluster(int cluster) {
+        int[] nodes = clusterNodes[cluster];
+        if (nodes.length == 0)
+            return;
+
+        LocalSearch search = new LocalSearch();
+        int[] targets = new int[nodes.length + 4];
+        int[] costs = new int[nodes.length + 4];
+        for (int node : nodes) {
+            int count = 0;
+            for (int i = crossStart[node]; i < crossStart[node + 1]; i++) {
+                targets[count] = crossTarget[i];
+                costs[count++] = maze.cost(nodeCell[crossTarget[i]]);
+            }
+
+            search.run(nodeCell[node], -1, false);
+            for (int other : nodes) {
+                int d = search.distance(nodeCell[other]);
+                if (other != node && d != Integer.MAX_VALUE) {
+                    targets[count] = other;
+                    costs[count++] = d;
+                }
+            }
+
+            edgeTo[node] = Arrays.copyOf(targets, count);
+            edgeCost[node] = Arrays.copyOf(costs, count);
+        }
+    }
+
+    // Dijkstra restricted to one cluster. Forward runs give the cost of
+    // reaching each cell from the source, backward runs the cost of going
+    // from each cell to the source, not counting the cell itself.
+    public class LocalSearch {
+        private final int[] dist = new int[clusterSize * clusterSize];
+        private final int[] link = new int[clusterSize * clusterSize];  // next cell towards the source
+        private final IndexedMinHeap pq = new IndexedMinHeap(clusterSize * clusterSize);
+        private int top, left, bottom, right;
+
+        // {up,down,left,right}
+        private final int[] dRow = { -1, 1, 0, 0 };
+        private final int[] dCol = { 0, 0, -1, 1 };
+        private final int[] bits = { 8, 4, 2, 1 };
+
+        // stops early once target is settled, -1 to search the whole cluster
+        public void run(int source, int target, boolean backward) {
+            int cluster = clusterOf(source);
+            top = cluster / clusterCols * clusterSize;
+            left = cluster % clusterCols * clusterSize;
+            bottom = Math.min(rows, top + clusterSize) - 1;
+            right = Math.min(cols, left + clusterSize) - 1;
+
+            Arrays.fill(dist, Integer.MAX_VALUE);
+            pq.clear();
+            dist[local(source)] = 0;
+            link[local(source)] = -1;
+            pq.insertOrDecrease(local(source), 0);
+
+            while (!pq.isEmpty()) {
+                int current = pq.poll();
+                int r = top + current / clusterSize;
+                int c = left + current % clusterSize;
+                int index = r * cols + c;
+                if (index == target)
+                    return;
+
+                int available = maze.directions(index);
+                for (int i = 0; i < 4; i++) {
+                    int nr = r + dRow[i];
+                    int nc = c + dCol[i];
+                    if ((available & bits[i]) == 0 || nr < top || nr > bottom || nc < left || nc > right)
+                        continue;
+
+                    int next = nr * cols + nc;
+                    int newCost = dist[current] + maze.cost(backward ? index : next);
+                    int slot = local(next);
+                    if (newCost < dist[slot]) {
+                        dist[slot] = newCost;
+                        link[slot] = index;
+                        pq.insertOrDecrease(slot, newCost);
+                    }
+                }
+            }
+        }
+
+        // MAX_VALUE for cells the last run did not reach or outside its cluster
+        public int distance(int index) {
+            int r = index / cols;
+            int c = index % cols;
+            if (r < top || r > bottom || c < left || c > right)
+                return Integer.MAX_VALUE;
+            return dist[local(index)];
+        }
+
+        // cells after the source up to the given cell, for a forward run
+        public void appendPath(int index, List<Integer> out) {
+            int mark = out.size();
+            for (int trace = index; link[local(trace)] >= 0; trace = link[local(trace)]) {
+                out.add(trace);
+            }
+            Collections.reverse(out.subList(mark, out.size()));
+        }
+
+        private int local(int index) {
+            return (index / cols - top) * clusterSize + (index % cols - left);
+        }
+    }
+}
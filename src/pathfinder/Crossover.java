@@ -0,0 +1,51 @@
+package pathfinder;
+
+import java.util.Random;
+
+// Recombines two children in place. They start out as copies of parents p1
+// and p2 of the scored population. See GAConfig for the built in ones.
+public interface Crossover {
+    void recombine(PackedPopulation parents, int p1, int p2, PackedPopulation children, int c1, int c2,
+            Random rnd);
+
+    // swaps the genes between two random points
+    static Crossover twoPoint() {
+        return (parents, p1, p2, children, c1, c2, rnd) -> {
+            int n = parents.length();
+            int a = rnd.nextInt(n);
+            int b = rnd.nextInt(n);
+
+            // ensure a < b
+            if (a > b) {
+                int temp = a;
+                a = b;
+                b = temp;
+            }
+
+            children.copyRange(c1, parents, p2, a, b);
+            children.copyRange(c2, parents, p1, a, b);
+        };
+    }
+
+    // swaps every gene after a random point
+    static Crossover onePoint() {
+        return (parents, p1, p2, children, c1, c2, rnd) -> {
+            int n = parents.length();
+            int a = rnd.nextInt(n);
+            children.copyRange(c1, parents, p2, a, n);
+            children.copyRange(c2, parents, p1, a, n);
+        };
+    }
+
+    // swaps each gene with even odds
+    static Crossover uniform() {
+        return (parents, p1, p2, children, c1, c2, rnd) -> {
+            for (int i = 0; i < parents.length(); i++) {
+                if (rnd.nextBoolean()) {
+                    children.setGene(c1, i, parents.gene(p2, i));
+                    children.setGene(c2, i, parents.gene(p1, i));
+                }
+            }
+        };
+    }
+}
@@ -1,15 +1,16 @@
 package pathfinder;
 
 import maze.Maze;
-import maze.CellType;
 import java.awt.Point;
 import java.util.*;
 
 public class DijkstraAnimatorWrapper implements AnimatablePathfinder {
     private final Maze maze;
-    private final PriorityQueue<Node> pq;
-    private final int[][] path;
+    private final CellPriorityQueue pq;
+    private final int[] path;      // best known cost by cell index
+    private final int[] from;      // previous cell on that path, -1 for none
     private final Set<Point> closedSet;
+    private final ChangeFeed changes = new ChangeFeed();
     private final int rows, cols;
     private boolean finished = false;
     private List<Point> finalPath = Collections.emptyList();
@@ -21,20 +22,25 @@ public class DijkstraAnimatorWrapper implements AnimatablePathfinder {
     private final int[] bits = { 8, 4, 2, 1 };
 
     public DijkstraAnimatorWrapper(Maze maze) {
+        this(maze, new IndexedMinHeap(maze.cellCount()));
+    }
+
+    protected DijkstraAnimatorWrapper(Maze maze, CellPriorityQueue pq) {
         this.maze = maze;
         this.rows = maze.height();
         this.cols = maze.width();
-        this.path = new int[rows][cols];
+        this.path = new int[maze.cellCount()];
+        this.from = new int[maze.cellCount()];
         this.closedSet = new HashSet<>();
-        
-        for (int i = 0; i < rows; i++) {
-            Arrays.fill(path[i], Integer.MAX_VALUE);
-        }
-        
-        this.pq = new PriorityQueue<>();
-        Point start = maze.getStart();
-        path[start.x][start.y] = 0;
-        pq.add(new Node(start.x, start.y, 0, 0, null)); 
+
+        Arrays.fill(path, Integer.MAX_VALUE);
+
+        this.pq = pq;
+        int start = maze.startIndex();
+        path[start] = 0;
+        from[start] = -1;
+        pq.insertOrDecrease(start, 0);
+        changes.opened(start);
     }
 
     @Override
@@ -60,9 +66,7 @@ public class DijkstraAnimatorWrapper implements AnimatablePathfinder {
     @Override
     public Set<Point> getOpenSet() {
         Set<Point> openSet = new HashSet<>();
-        for (Node node : pq) {
-            openSet.add(new Point(node.r, node.c));
-        }
+        pq.forEach(cell -> openSet.add(new Point(maze.row(cell), maze.col(cell))));
         return openSet;
     }
 
@@ -71,6 +75,11 @@ public class DijkstraAnimatorWrapper implements AnimatablePathfinder {
         return closedSet;
     }
 
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
+    }
+
     @Override
     public void nextStep() {
         if (finished || pq.isEmpty()) {
@@ -78,45 +87,47 @@ public class DijkstraAnimatorWrapper implements AnimatablePathfinder {
             return;
         }
 
-        Node current = pq.poll();
+        int current = pq.poll();
+        int r = maze.row(current);
+        int c = maze.col(current);
         
-        if (maze.get(current.r, current.c).type == CellType.GOAL) {
+        if (current == maze.goalIndex()) {
             finished = true;
-            totalCost = current.pTimes;
+            totalCost = path[current];
             finalPath = new ArrayList<>();
-            Node trace = current;
-            while (trace != null) {
-                finalPath.add(new Point(trace.r, trace.c));
-                trace = trace.from;
+            for (int trace = current; trace >= 0; trace = from[trace]) {
+                finalPath.add(new Point(maze.row(trace), maze.col(trace)));
+                changes.pathed(trace);
             }
             Collections.reverse(finalPath);
             return;
         }
-
-        if (current.pTimes > path[current.r][current.c]) {
-            return;
-        }
         
-        closedSet.add(new Point(current.r, current.c)); 
+        closedSet.add(new Point(r, c)); 
+        changes.closed(current);
         
-        int available = maze.availableDirection(current.r, current.c);
+        int available = maze.directions(current);
 
         for (int i = 0; i < 4; i++) {
             if ((available & bits[i]) != 0) {
-                int newR = current.r + dRow[i];
-                int newC = current.c + dCol[i];
+                int newR = r + dRow[i];
+                int newC = c + dCol[i];
                 
                 if (newR < 0 || newR >= rows || newC < 0 || newC >= cols) {
                     continue;
                 }
                 
-                int newpTimes = current.pTimes + maze.get(newR, newC).value;
+                int next = newR * cols + newC;
+                int newpTimes = path[current] + maze.cost(next);
 
-                if (newpTimes < path[newR][newC]) {
-                    path[newR][newC] = newpTimes;
-                    pq.add(new Node(newR, newC, newpTimes, newpTimes, current)); 
+                if (newpTimes < path[next]) {
+                    if (path[next] == Integer.MAX_VALUE)
+                        changes.opened(next);
+                    path[next] = newpTimes;
+                    from[next] = current;
+                    pq.insertOrDecrease(next, newpTimes); 
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
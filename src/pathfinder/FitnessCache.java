@@ -0,0 +1,198 @@
+package pathfinder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fitness results of the GA by walked prefix. A chromosome's walk stops at
+// the first wall, the edge of the maze or the goal, so its fitness depends
+// only on the genes up to there and on the dead end memory it was scored
+// against. Chromosomes that share that prefix, which after crossover and
+// elitism is most of a generation, are scored once. Entries also keep the
+// penalties the walk added so a hit can log them again.
+//
+// Keys carry the memory version, so entries of an older memory are never
+// hit and age out. Results cannot outlive the memory anyway: a walk that
+// stops at a wall adds to the very penalty it read there. Nor is the walk
+// resumed part way from a stored prefix state, as that state holds a visit
+// count for every cell walked and restoring it costs as much as the walk.
+//
+// The cache is split into stripes by hash, each a small LRU map behind its
+// own lock, and holds at most capacity entries. An evicted entry is filled
+// in place by the next miss of its stripe, so a full cache allocates only
+// the map's own node per miss.
+public class FitnessCache {
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    FitnessCache(int capacity) {
+        int perStripe = Math.max(1, capacity / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    // on a hit copies the result into result and logs the walk's penalties
+    // into delta; entries are reused, so nothing is read outside the lock
+    boolean get(Key key, Moves result, PenaltyDelta delta, int cols) {
+        Stripe stripe = stripes[key.hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            Entry entry = stripe.map.get(key);
+            if (entry == null)
+                return false;
+            result.fitness = entry.fitness;
+            result.totalCost = entry.totalCost;
+            result.goalReached = entry.goalReached;
+            for (int i = 0; i < entry.penaltyCount; i++) {
+                int cell = entry.penaltyCells[i];
+                delta.add(cell / cols, cell % cols, entry.penaltyMoves[i], entry.penaltyValues[i]);
+            }
+        }
+        hits.increment();
+        return true;
+    }
+
+    // stores the result and the penalties logged in delta from mark on;
+    // the key is copied, probes can be reused
+    void put(Key key, Moves result, PenaltyDelta delta, int mark, int cols) {
+        Stripe stripe = stripes[key.hash & (STRIPES - 1)];
+        synchronized (stripe) {
+            Entry entry = stripe.map.get(key); // another thread may have stored it meanwhile
+            if (entry == null) {
+                entry = stripe.spare != null ? stripe.spare : new Entry();
+                stripe.spare = null;
+                entry.key.set(key);
+                stripe.map.put(entry.key, entry);
+            }
+            entry.set(result, delta, mark, cols);
+        }
+        misses.increment();
+    }
+
+    // an LRU map in access order, held rather than extended so the stripe
+    // is not Serializable
+    private class Stripe {
+        private final int capacity;
+        private Entry spare;        // evicted, waiting to be filled again
+        private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FitnessCache.Entry> eldest) {
+                if (size() <= capacity)
+                    return false;
+                spare = eldest.getValue();
+                evictions.increment();
+                return true;
+            }
+        };
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    // memory version and walked genes, packed two bits per gene
+    static final class Key {
+        long version;
+        int genes;
+        long[] words;
+        int wordCount;
+        int hash;
+
+        Key(int maxWords) {
+            words = new long[maxWords];
+        }
+
+        void set(Key other) {
+            version = other.version;
+            genes = other.genes;
+            if (words.length < other.wordCount)
+                words = new long[other.wordCount];
+            System.arraycopy(other.words, 0, words, 0, other.wordCount);
+            wordCount = other.wordCount;
+            hash = other.hash;
+        }
+
+        // call after filling words
+        void rehash() {
+            long h = version * 0x9E3779B97F4A7C15L + genes;
+            for (int i = 0; i < wordCount; i++) {
+                h = (h ^ words[i]) * 0x100000001b3L;
+            }
+            hash = (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            if (hash != other.hash || version != other.version || genes != other.genes)
+                return false;
+            for (int i = 0; i < wordCount; i++) {
+                if (words[i] != other.words[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    // filled in place, only under its stripe's lock
+    private static final class Entry {
+        final Key key = new Key(0);
+        double fitness;
+        int totalCost;
+        boolean goalReached;
+        int penaltyCount;
+        int[] penaltyCells = new int[4];     // r * cols + c of each penalty the walk added
+        int[] penaltyMoves = new int[4];
+        double[] penaltyValues = new double[4];
+
+        void set(Moves result, PenaltyDelta delta, int mark, int cols) {
+            fitness = result.fitness;
+            totalCost = result.totalCost;
+            goalReached = result.goalReached;
+            penaltyCount = delta.mark() - mark;
+            if (penaltyCells.length < penaltyCount) {
+                penaltyCells = new int[penaltyCount];
+                penaltyMoves = new int[penaltyCount];
+                penaltyValues = new double[penaltyCount];
+            }
+            for (int i = 0; i < penaltyCount; i++) {
+                penaltyCells[i] = delta.row(mark + i) * cols + delta.col(mark + i);
+                penaltyMoves[i] = delta.move(mark + i);
+                penaltyValues[i] = delta.value(mark + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package pathfinder;
+
+import java.util.Arrays;
+
+// Buffers a scoring thread borrows from a ScratchPool and reuses for every
+// chromosome in its chunk, so scoring allocates nothing once they exist.
+// A cell's visit count only counts when its stamp matches the chromosome
+// being scored, so the grid never has to be cleared between chromosomes.
+class FitnessScratch {
+    static final int RECENT = 10;
+
+    final int[] visitStamp;
+    final int[] visitCount;
+
+    private final int[] recent = new int[RECENT];   // ring of the last cells walked
+    private int recentStart = 0;
+    private int recentSize = 0;
+    private int evaluation = 0;
+
+    final FitnessCache.Key key;        // probe for the fitness cache
+
+    FitnessScratch(int cells, int words) {
+        visitStamp = new int[cells];
+        visitCount = new int[cells];
+        key = new FitnessCache.Key(words);
+    }
+
+    // starts a new chromosome, returns its stamp
+    int nextEvaluation() {
+        recentStart = 0;
+        recentSize = 0;
+        if (++evaluation == 0) {
+            Arrays.fill(visitStamp, 0);
+            evaluation = 1;
+        }
+        return evaluation;
+    }
+
+    boolean recentlyVisited(int index) {
+        for (int i = 0; i < recentSize; i++) {
+            if (recent[(recentStart + i) % RECENT] == index)
+                return true;
+        }
+        return false;
+    }
+
+    // keeps the last RECENT cells, dropping the oldest
+    void addRecent(int index) {
+        if (recentSize < RECENT) {
+            recent[(recentStart + recentSize++) % RECENT] = index;
+        } else {
+            recent[recentStart] = index;
+            recentStart = (recentStart + 1) % RECENT;
+        }
+    }
+}
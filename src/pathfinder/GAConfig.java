@@ -0,0 +1,324 @@
+package pathfinder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Parameters and operators of GeneticAlgorithmVisualizer. The defaults are
+// the values the GA has always used.
+//
+// Settings are key=value pairs, from code, the command line (see
+// BatchSolver) or a file: a .json file holding one flat object, anything
+// else as a properties file. Keys:
+//   population       chromosomes per generation           5000
+//   crossover-rate   odds that two parents recombine      0.9
+//   mutation-rate    odds per gene of a mutation          0.1
+//   guided-ratio     share of a guided chromosome that    0.25
+//                    follows open cells before random moves
+//   elite-ratio      share copied unchanged into the      0.05
+//                    next generation
+//   tournament-size  picks per tournament                 4
+//   selection        tournament | rank                    tournament
+//   crossover        two-point | one-point | uniform      two-point
+//   mutation         guided | random                      guided
+//   fitness-cache    cached walk results, 0 for off       16384
+// and for IslandGeneticAlgorithm, which shares population out between islands:
+//   islands          sub-populations, 0 for one per       0
+//                    processor
+//   migration-interval
+//                    generations between migrations       10
+//   migration-rate   share of an island's population      0.02
+//                    sent to its neighbours, at least one
+//   topology         ring | full                          ring
+//   memory-merge-interval
+//                    generations between merging the      0
+//                    dead end memories, 0 for never
+// Operators of your own can be set with setSelection, setCrossover and
+// setMutation instead.
+public class GAConfig {
+    public static final List<String> KEYS = Collections.unmodifiableList(Arrays.asList("population",
+            "crossover-rate", "mutation-rate", "guided-ratio", "elite-ratio", "tournament-size", "selection",
+            "crossover", "mutation", "fitness-cache", "islands", "migration-interval", "migration-rate", "topology",
+            "memory-merge-interval"));
+
+    private static final Pattern JSON_ENTRY = Pattern.compile(
+            "\\s*\"([^\"]*)\"\\s*:\\s*(?:\"([^\"]*)\"|([-+.\\w]+))\\s*(,|$)");
+
+    private int population = 5000;
+    private double crossoverRate = 0.9;
+    private double mutationRate = 0.1;
+    private double guidedRatio = 0.25;
+    private double eliteRatio = 0.05;
+    private int tournamentSize = 4;
+    private String selectionName = "tournament";
+    private String crossoverName = "two-point";
+    private String mutationName = "guided";
+    private int fitnessCache = 16384;
+    private int islands = 0;
+    private int migrationInterval = 10;
+    private double migrationRate = 0.02;
+    private String topology = "ring";
+    private int memoryMergeInterval = 0;
+
+    // set in code, win over the names
+    private Selection selection;
+    private Crossover crossover;
+    private Mutation mutation;
+
+    public GAConfig() {
+    }
+
+    public GAConfig copy() {
+        GAConfig copy = new GAConfig();
+        copy.population = population;
+        copy.crossoverRate = crossoverRate;
+        copy.mutationRate = mutationRate;
+        copy.guidedRatio = guidedRatio;
+        copy.eliteRatio = eliteRatio;
+        copy.tournamentSize = tournamentSize;
+        copy.selectionName = selectionName;
+        copy.crossoverName = crossoverName;
+        copy.mutationName = mutationName;
+        copy.fitnessCache = fitnessCache;
+        copy.islands = islands;
+        copy.migrationInterval = migrationInterval;
+        copy.migrationRate = migrationRate;
+        copy.topology = topology;
+        copy.memoryMergeInterval = memoryMergeInterval;
+        copy.selection = selection;
+        copy.crossover = crossover;
+        copy.mutation = mutation;
+        return copy;
+    }
+
+    public static GAConfig load(Path file) throws IOException {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (file.getFileName().toString().endsWith(".json")) {
+            settings = parseJson(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } else {
+            Properties properties = new Properties();
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(in);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                settings.put(key, properties.getProperty(key));
+            }
+        }
+
+        GAConfig config = new GAConfig();
+        try {
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                config.set(setting.getKey(), setting.getValue());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        return config;
+    }
+
+    // one flat object of strings, numbers and booleans
+    private static Map<String, String> parseJson(String text) throws IOException {
+        String body = text.trim();
+        if (!body.startsWith("{") || !body.endsWith("}"))
+            throw new IOException("expected a JSON object");
+        body = body.substring(1, body.length() - 1).trim();
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        Matcher entry = JSON_ENTRY.matcher(body);
+        int at = 0;
+        while (at < body.length()) {
+            if (!entry.find(at) || entry.start() != at)
+                throw new IOException("cannot read JSON at '" + body.substring(at) + "'");
+            settings.put(entry.group(1), entry.group(2) != null ? entry.group(2) : entry.group(3));
+            at = entry.end();
+        }
+        return settings;
+    }
+
+    public void set(String key, String value) {
+        value = value.trim();
+        switch (key) {
+            case "population":
+                population = parseInt(key, value, 2);
+                break;
+            case "crossover-rate":
+                crossoverRate = parseRatio(key, value);
+                break;
+            case "mutation-rate":
+                mutationRate = parseRatio(key, value);
+                break;
+            case "guided-ratio":
+                guidedRatio = parseRatio(key, value);
+                break;
+            case "elite-ratio":
+                eliteRatio = parseRatio(key, value);
+                break;
+            case "tournament-size":
+                tournamentSize = parseInt(key, value, 1);
+                break;
+            case "selection":
+                selectionName = choose(key, value, "tournament", "rank");
+                selection = null;
+                break;
+            case "crossover":
+                crossoverName = choose(key, value, "two-point", "one-point", "uniform");
+                crossover = null;
+                break;
+            case "mutation":
+                mutationName = choose(key, value, "guided", "random");
+                mutation = null;
+                break;
+            case "fitness-cache":
+                fitnessCache = parseInt(key, value, 0);
+                break;
+            case "islands":
+                islands = parseInt(key, value, 0);
+                break;
+            case "migration-interval":
+                migrationInterval = parseInt(key, value, 1);
+                break;
+            case "migration-rate":
+                migrationRate = parseRatio(key, value);
+                break;
+            case "topology":
+                topology = choose(key, value, "ring", "full");
+                break;
+            case "memory-merge-interval":
+                memoryMergeInterval = parseInt(key, value, 0);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown GA setting '" + key + "', expected one of " + KEYS);
+        }
+    }
+
+    private static int parseInt(String key, String value, int min) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min)
+                return parsed;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(key + " must be a whole number of at least " + min + ", got '" + value + "'");
+    }
+
+    private static double parseRatio(String key, String value) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed >= 0 && parsed <= 1)
+                return parsed;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(key + " must be between 0 and 1, got '" + value + "'");
+    }
+
+    private static String choose(String key, String value, String... names) {
+        if (!Arrays.asList(names).contains(value))
+            throw new IllegalArgumentException("Unknown " + key + " '" + value + "', expected one of "
+                    + Arrays.toString(names));
+        return value;
+    }
+
+    public int population() {
+        return population;
+    }
+
+    public double crossoverRate() {
+        return crossoverRate;
+    }
+
+    public double mutationRate() {
+        return mutationRate;
+    }
+
+    public double guidedRatio() {
+        return guidedRatio;
+    }
+
+    public double eliteRatio() {
+        return eliteRatio;
+    }
+
+    public int tournamentSize() {
+        return tournamentSize;
+    }
+
+    public int fitnessCache() {
+        return fitnessCache;
+    }
+
+    public int islands() {
+        return islands;
+    }
+
+    public int migrationInterval() {
+        return migrationInterval;
+    }
+
+    public double migrationRate() {
+        return migrationRate;
+    }
+
+    public String topology() {
+        return topology;
+    }
+
+    public int memoryMergeInterval() {
+        return memoryMergeInterval;
+    }
+
+    public void setSelection(Selection selection) {
+        this.selection = selection;
+    }
+
+    public void setCrossover(Crossover crossover) {
+        this.crossover = crossover;
+    }
+
+    public void setMutation(Mutation mutation) {
+        this.mutation = mutation;
+    }
+
+    public Selection selection() {
+        if (selection != null)
+            return selection;
+        return selectionName.equals("rank") ? Selection.rank() : Selection.tournament(tournamentSize);
+    }
+
+    public Crossover crossover() {
+        if (crossover != null)
+            return crossover;
+        switch (crossoverName) {
+            case "one-point":
+                return Crossover.onePoint();
+            case "uniform":
+                return Crossover.uniform();
+            default:
+                return Crossover.twoPoint();
+        }
+    }
+
+    public Mutation mutation() {
+        if (mutation != null)
+            return mutation;
+        return mutationName.equals("random") ? Mutation.random(mutationRate) : new GuidedMutation(mutationRate);
+    }
+
+    @Override
+    public String toString() {
+        return "population=" + population + " crossover-rate=" + crossoverRate + " mutation-rate=" + mutationRate
+                + " guided-ratio=" + guidedRatio + " elite-ratio=" + eliteRatio + " tournament-size="
+                + tournamentSize + " selection=" + (selection != null ? "custom" : selectionName)
+                + " crossover=" + (crossover != null ? "custom" : crossoverName)
+                + " mutation=" + (mutation != null ? "custom" : mutationName) + " fitness-cache="
+                + fitnessCache + " islands=" + islands
+                + " migration-interval=" + migrationInterval + " migration-rate=" + migrationRate + " topology="
+                + topology + " memory-merge-interval=" + memoryMergeInterval;
+    }
+}
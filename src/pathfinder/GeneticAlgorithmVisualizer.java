@@ -1,46 +1,128 @@
 package pathfinder;
 
 import maze.Maze;
-import maze.Cell;
-import maze.CellType;
 import java.awt.Point;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
 
     private final Maze maze;
-    private final HashMap<Point, double[]> deadEndMemory = new HashMap<>();
-    private static final double PATH_HARD_BLOCK = 40.0;
-
-    private final int MAX_POPULATION = 5000;
-    private final double CROSSOVER_RATE = 0.9;
-    private final double MUTATION_RATE = 0.1;
-    private final double GUIDED_RATIO = 0.25;
-    private Random rnd = new Random();
+    private final PenaltyGrid deadEndMemory;
+    static final double PATH_HARD_BLOCK = 40.0;
+    private static final double DEAD_END_PENALTY = 20.0;
+
+    // see GAConfig
+    private final int MAX_POPULATION;
+    private final double CROSSOVER_RATE;
+    private final double GUIDED_RATIO;
+    private final double ELITE_RATIO;
+    private final Selection selection;
+    private final Crossover crossover;
+    private final Mutation mutation;
+
+    private final int SCORE_CHUNK = 64;
+    private Random rnd;
+
+    // shared with other GAs, see ScoringPools; null when the population is
+    // scored on the calling thread
+    private final ForkJoinPool scoringPool;
+
+    // reused by every generation: one scratch per chunk being scored, one
+    // result per population slot and one penalty log per chunk
+    private final ScratchPool<FitnessScratch> scratch;
+    private final double[] goalDistance;   // straight line distance to the goal by cell index
+    private Moves[] scored = new Moves[0];
+    private PenaltyDelta[] deltas = new PenaltyDelta[0];
+    private final ArrayList<Moves> fitnessScores = new ArrayList<>();
+
+    // null when off; keys carry memoryVersion, which changes with the memory
+    private final FitnessCache fitnessCache;
+    private long memoryVersion = 0;
 
     private final int CHROM_LENGTH;
     private final int MAX_STAGNANT;
 
-    private List<int[]> population;
+    // the generation being scored and the one being bred from it, swapped
+    // every generation; one spare slot for a second child that does not fit
+    private PackedPopulation population;
+    private PackedPopulation nextPopulation;
     private Moves bestMoves;
 
     private int generation = 0;
     private int stagnantCount = 0;
     private int annihilationCount = 0;
+    private int evaluations = 0;
     private boolean finished = false;
+    private boolean logging = true;
 
     private List<Point> currentPath = new ArrayList<>();
 
     public GeneticAlgorithmVisualizer(Maze maze) {
+        this(maze, new Random().nextLong(), 1);
+    }
+
+    // parallelism <= 1 scores the population serially, a fixed seed makes
+    // serial and parallel runs produce the same generations
+    public GeneticAlgorithmVisualizer(Maze maze, long seed, int parallelism) {
+        this(maze, seed, parallelism, new GAConfig());
+    }
+
+    public GeneticAlgorithmVisualizer(Maze maze, long seed, int parallelism, GAConfig config) {
+        this(maze, seed, parallelism, config, scratchPool(maze, parallelism));
+    }
+
+    // GAs on the same maze can share the scratch, as islands do
+    GeneticAlgorithmVisualizer(Maze maze, long seed, int parallelism, GAConfig config,
+            ScratchPool<FitnessScratch> scratch) {
         this.maze = maze;
+        this.MAX_POPULATION = config.population();
+        this.CROSSOVER_RATE = config.crossoverRate();
+        this.GUIDED_RATIO = config.guidedRatio();
+        this.ELITE_RATIO = config.eliteRatio();
+        this.selection = config.selection();
+        this.crossover = config.crossover();
+        this.mutation = config.mutation();
+        this.deadEndMemory = new PenaltyGrid(maze.height(), maze.width());
+
+        this.rnd = new Random(seed);
+        this.scoringPool = parallelism > 1 ? ScoringPools.get(parallelism) : null;
+        this.fitnessCache = config.fitnessCache() > 0 ? new FitnessCache(config.fitnessCache()) : null;
+        this.scratch = scratch;
+
+        Point goal = maze.getGoal();
+        this.goalDistance = new double[maze.cellCount()];
+        for (int index = 0; index < goalDistance.length; index++) {
+            goalDistance[index] = Math.hypot(maze.row(index) - goal.x, maze.col(index) - goal.y);
+        }
 
         this.CHROM_LENGTH = (int) ((maze.width() + maze.height()) * 2);
         this.MAX_STAGNANT = Math.max(maze.width(), maze.height()) * 3;
 
-        this.population = generatePopulation(maze, CHROM_LENGTH);
+        this.population = new PackedPopulation(MAX_POPULATION + 1, CHROM_LENGTH);
+        this.nextPopulation = new PackedPopulation(MAX_POPULATION + 1, CHROM_LENGTH);
+        generatePopulation(maze, population);
         this.bestMoves = new Moves(null, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
     }
 
+    // enough scratch for threads GAs scoring on maze at once
+    static ScratchPool<FitnessScratch> scratchPool(Maze maze, int threads) {
+        int words = ((maze.width() + maze.height()) * 2 + 31) / 32;
+        return new ScratchPool<>(() -> new FitnessScratch(maze.cellCount(), words), Math.max(1, threads));
+    }
+
+    // hit and miss counts, null when the cache is off
+    public FitnessCache fitnessCache() {
+        return fitnessCache;
+    }
+
+    // progress lines on stdout, off for headless runs
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
     @Override
     public String getName() {
         return "GA HiveMind (Gen: " + generation + ")";
@@ -56,15 +138,18 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
         return bestMoves.totalCost;
     }
 
+    // the GA expands no cells, report the chromosomes scored instead
+    @Override
+    public int getExpandedCount() {
+        return evaluations;
+    }
+
     @Override
     public void nextStep() {
         if (finished)
             return;
 
-        ArrayList<Moves> fitness_scores = new ArrayList<>();
-        for (int[] chromosome : population) {
-            fitness_scores.add(fitnessCalculate(maze, chromosome));
-        }
+        ArrayList<Moves> fitness_scores = scorePopulation();
 
         Collections.sort(fitness_scores);
 
@@ -74,38 +159,172 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
         }
 
         else if (bestMoves.fitness < fitness_scores.get(0).fitness) {
-            bestMoves = fitness_scores.get(0);
+            // scored results and population slots are reused next generation, keep a copy
+            Moves best = fitness_scores.get(0);
+            bestMoves = new Moves(population.toArray(best.index), best.fitness, best.totalCost, best.goalReached);
             stagnantCount = 0;
             annihilationCount = 0;
 
             updateDisplayPath(bestMoves);
         }
 
-        System.out.println("Generation " + generation + " Best Fitness: " + bestMoves.fitness);
+        log("Generation " + generation + " Best Fitness: " + bestMoves.fitness);
         generation++;
 
         if (stagnantCount >= MAX_STAGNANT) {
             finished = true;
             if (bestMoves.goalReached)
-                System.out.println("Goal Reached!");
+                log("Goal Reached!");
             else
-                System.out.println("Given up (Stagnant)");
+                log("Given up (Stagnant)");
             return;
         }
 
-        List<Moves> selectedMoves = selection(fitness_scores, (int) (MAX_POPULATION / 2));
-        List<int[]> newGen;
+        List<Moves> selectedMoves = selection.select(fitness_scores, (int) (MAX_POPULATION / 2), rnd);
+        nextPopulation.clear();
 
         if (annihilationCount < MAX_STAGNANT / 5) {
-            newGen = generateNextPopulation(maze, fitness_scores, selectedMoves);
+            generateNextPopulation(maze, fitness_scores, selectedMoves);
         } else {
-            System.out.println("--- TRIGGER ANNIHILATION (Escaping Local Optima) ---");
+            log("--- TRIGGER ANNIHILATION (Escaping Local Optima) ---");
             annihilationCount = 0;
-            newGen = localOptimaEscaped(maze, fitness_scores);
+            localOptimaEscaped(maze, fitness_scores);
+        }
+
+        PackedPopulation bred = nextPopulation;
+        nextPopulation = population;
+        population = bred;
+    }
+
+    private void log(String message) {
+        if (logging)
+            System.out.println(message);
+    }
+
+    // island model hooks, see IslandGeneticAlgorithm
+
+    double bestFitness() {
+        return bestMoves.fitness;
+    }
+
+    boolean goalReached() {
+        return bestMoves.goalReached;
+    }
+
+    int chromosomeLength() {
+        return CHROM_LENGTH;
+    }
+
+    // copies the best count chromosomes of the generation scored by the last
+    // step, which still sit in the other store until the next step breeds
+    void emigrants(PackedPopulation into, int count) {
+        for (int i = 0; i < Math.min(count, fitnessScores.size()); i++) {
+            into.copy(into.add(), nextPopulation, fitnessScores.get(i).index);
+        }
+    }
+
+    // overwrites the last chromosomes of the generation the next step
+    // scores, at most half of it
+    void immigrate(PackedPopulation migrants) {
+        int count = Math.min(migrants.size(), population.size() / 2);
+        for (int i = 0; i < count; i++) {
+            population.copy(population.size() - 1 - i, migrants, i);
+        }
+    }
+
+    // keeps the larger penalty of every move either memory knows
+    void absorbMemory(GeneticAlgorithmVisualizer other) {
+        deadEndMemory.absorb(other.deadEndMemory);
+        memoryVersion++;
+    }
+
+    // Scores every chromosome in population order. Workers read the dead end
+    // memory as it was at the start of the generation and the penalties they
+    // add are merged chunk by chunk afterwards, so the result does not depend
+    // on how many threads did the scoring.
+    private ArrayList<Moves> scorePopulation() {
+        int n = population.size();
+        int chunks = (n + SCORE_CHUNK - 1) / SCORE_CHUNK;
+        if (scored.length < n) {
+            scored = Arrays.copyOf(scored, n);
+            for (int i = 0; i < n; i++) {
+                if (scored[i] == null)
+                    scored[i] = new Moves(null, 0, 0, false);
+            }
+        }
+        if (deltas.length < chunks) {
+            deltas = Arrays.copyOf(deltas, chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                if (deltas[chunk] == null)
+                    deltas[chunk] = new PenaltyDelta();
+            }
+        }
+
+        IntConsumer scoreChunk = chunk -> {
+            PenaltyDelta delta = deltas[chunk];
+            FitnessScratch buffers = scratch.take();
+            delta.clear();
+            int end = Math.min(n, (chunk + 1) * SCORE_CHUNK);
+            for (int i = chunk * SCORE_CHUNK; i < end; i++) {
+                score(i, delta, buffers, scored[i]);
+            }
+            scratch.give(buffers);
+        };
+
+        if (scoringPool == null) {
+            for (int chunk = 0; chunk < chunks; chunk++)
+                scoreChunk.accept(chunk);
+        } else {
+            scoringPool.submit(() -> IntStream.range(0, chunks).parallel().forEach(scoreChunk)).join();
+        }
+
+        boolean memoryChanged = false;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            memoryChanged |= deltas[chunk].mark() > 0;
+            deltas[chunk].mergeInto(deadEndMemory);
+        }
+        if (memoryChanged)
+            memoryVersion++;
+        evaluations += n;
+
+        fitnessScores.clear();
+        for (int i = 0; i < n; i++) {
+            fitnessScores.add(scored[i]);
+        }
+        return fitnessScores;
+    }
+
+    // scores the slot, or takes the result of a chromosome that walked the
+    // same genes against the same memory; a slot whose walk is not known yet
+    // is scored first and stored for the chromosomes after it
+    private void score(int slot, PenaltyDelta delta, FitnessScratch buffers, Moves result) {
+        if (fitnessCache == null) {
+            fitnessCalculate(maze, population, slot, delta, buffers, result);
+            return;
+        }
+
+        FitnessCache.Key key = buffers.key;
+        int walked = population.walked(slot);
+        if (walked > 0) {
+            prefixKey(key, slot, walked);
+            if (fitnessCache.get(key, result, delta, maze.width())) {
+                result.index = slot;
+                return;
+            }
         }
 
-        population.clear();
-        population.addAll(newGen);
+        int mark = delta.mark();
+        fitnessCalculate(maze, population, slot, delta, buffers, result);
+        if (walked == 0)
+            prefixKey(key, slot, population.walked(slot));
+        fitnessCache.put(key, result, delta, mark, maze.width());
+    }
+
+    private void prefixKey(FitnessCache.Key key, int slot, int walked) {
+        key.version = memoryVersion;
+        key.genes = walked;
+        key.wordCount = population.copyPrefix(slot, walked, key.words);
+        key.rehash();
     }
 
     private void updateDisplayPath(Moves best) {
@@ -123,10 +342,9 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             pos = nextPos;
             currentPath.add(pos);
 
-            Cell nextCell = maze.get(pos.x, pos.y);
-            if (nextCell.type == CellType.WALL)
+            if (maze.isWall(pos.x, pos.y))
                 break;
-            if (nextCell.type == CellType.GOAL)
+            if (maze.isGoal(pos.x, pos.y))
                 break;
         }
     }
@@ -143,7 +361,7 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
 
     @Override
     public Set<Point> getClosedSet() {
-        return deadEndMemory.keySet();
+        return deadEndMemory.cells();
     }
 
     private Point getNextPosition(Point current, int move) {
@@ -181,7 +399,7 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
 
         // Hive-mind pruning
         moves.removeIf(m -> {
-            return getPenalty(pos, m) > PATH_HARD_BLOCK;
+            return deadEndMemory.get(pos.x, pos.y, m) > PATH_HARD_BLOCK;
         });
         return moves;
     }
@@ -212,20 +430,19 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
         return forward[2]; // 10%
     }
 
-    private int[] generateChromosomes(int length) {
-        int[] genes = new int[length];
+    private void generateChromosomes(PackedPopulation genes, int length) {
+        int slot = genes.add();
         int prev = -1;
         int newMove;
         for (int i = 0; i < length; i++) {
             newMove = biasedStep(prev);
             prev = newMove;
-            genes[i] = newMove;
+            genes.setGene(slot, i, newMove);
         }
-        return genes;
     }
 
-    private int[] guidedChromosomes(Maze maze, int length) {
-        int[] genes = new int[length];
+    private void guidedChromosomes(Maze maze, PackedPopulation genes, int length) {
+        int slot = genes.add();
         Point pos = maze.getStart();
         int prev = -1;
         int nextMove;
@@ -252,7 +469,7 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             }
 
             nextPos = getNextPosition(pos, nextMove);
-            genes[count] = nextMove;
+            genes.setGene(slot, count, nextMove);
             prev = nextMove;
             count++;
 
@@ -263,7 +480,7 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             visited.add(nextPos);
             pos = nextPos;
 
-            if (maze.get(pos.x, pos.y).type == CellType.GOAL) {
+            if (maze.isGoal(pos.x, pos.y)) {
                 break;
             }
         }
@@ -271,99 +488,118 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
         for (int i = count; i < length; i++) {
             nextMove = biasedStep(prev);
             prev = nextMove;
-            genes[i] = nextMove;
+            genes.setGene(slot, i, nextMove);
         }
-
-        return genes;
     }
 
-    private List<int[]> generatePopulation(Maze maze, int chromLength) {
-        List<int[]> population = new ArrayList<>();
-
+    private void generatePopulation(Maze maze, PackedPopulation population) {
+        int chromLength = population.length();
         for (int i = 0; i < MAX_POPULATION; i++) {
             // 50% Guided population and 50% random
             if (i < (MAX_POPULATION * 0.5))
-                population.add(guidedChromosomes(maze, chromLength));
+                guidedChromosomes(maze, population, chromLength);
             else
-                population.add(generateChromosomes(chromLength));
+                generateChromosomes(population, chromLength);
         }
-        return population;
     }
 
     // Hive mind helper for fitness function
-    private double getPenalty(Point p, int move) {
-        double[] arr = deadEndMemory.get(p);
-        return arr == null ? 0.0 : arr[move];
+    private double getPenalty(PenaltyDelta delta, int mark, int r, int c, int move) {
+        return deadEndMemory.get(r, c, move) + delta.pending(mark, r, c, move);
     }
 
-    private void addPenalty(Point p, int move, double value) {
-        deadEndMemory
-                .computeIfAbsent(new Point(p), k -> new double[4])[move] += value;
-    }
+    // Walks the chromosome in the slot from the start and scores it into result. Cells
+    // are plain row and column ints and the visit counts and the window of
+    // recent cells live in the chunk's scratch, so nothing is allocated.
+    private void fitnessCalculate(Maze maze, PackedPopulation chromosomes, int slot, PenaltyDelta delta,
+            FitnessScratch buffers, Moves result) {
+        int mark = delta.mark();
+        int stamp = buffers.nextEvaluation();
+        int[] visitStamp = buffers.visitStamp;
+        int[] visitCount = buffers.visitCount;
 
-    private Moves fitnessCalculate(Maze maze, int[] chromosome) {
         Point start = maze.getStart();
         Point goal = maze.getGoal();
-        Point pos = start, prev = start;
+        int r = start.x, c = start.y;
+        int prevR = r, prevC = c;
         int totalCost = 0;
         int stepsTaken = 0;
+        int distinct = 0;
 
         int rows = maze.height();
         int cols = maze.width();
 
         double fitness = 0;
 
-        HashMap<Point, Integer> uniqueVisited = new HashMap<>();
-        ArrayList<Point> recent = new ArrayList<>();
-
         double dist = Integer.MAX_VALUE;
         int maxDist = maze.height() + maze.width();
 
-        for (int move : chromosome) {
-            pos = getNextPosition(pos, move);
+        int length = chromosomes.length();
+        int walked = length;    // genes read, up to the one that stops the walk
+        for (int gene = 0; gene < length; gene++) {
+            int move = chromosomes.gene(slot, gene);
+            switch (move) {
+                case 0:
+                    r--; // up
+                    break;
+                case 1:
+                    r++; // down
+                    break;
+                case 2:
+                    c--; // left
+                    break;
+                case 3:
+                    c++; // right
+                    break;
+            }
 
             // out of bounds
-            if (pos.x < 0 || pos.x >= rows || pos.y < 0 || pos.y >= cols) {
-                fitness -= (chromosome.length - stepsTaken) * 500;
-                fitness -= getPenalty(prev, move);
-                addPenalty(prev, move, 20.0);
+            if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                fitness -= (length - stepsTaken) * 500;
+                fitness -= getPenalty(delta, mark, prevR, prevC, move);
+                delta.add(prevR, prevC, move, DEAD_END_PENALTY);
+                walked = gene + 1;
                 break;
             }
 
-            // get next cell
-            Cell next = maze.get(pos.x, pos.y);
+            int index = r * cols + c;
 
             // hit wall
-            if (next.type == CellType.WALL) {
-                addPenalty(prev, move, 20.0);
-                fitness -= getPenalty(prev, move);
-                fitness -= (chromosome.length - stepsTaken) * 500;
+            if (maze.isWall(index)) {
+                delta.add(prevR, prevC, move, DEAD_END_PENALTY);
+                fitness -= getPenalty(delta, mark, prevR, prevC, move);
+                fitness -= (length - stepsTaken) * 500;
+                walked = gene + 1;
                 break;
             }
 
             // cell type reward
-            if (next.type == CellType.NUMBER)
-                totalCost += next.value;
+            // start and goal cells cost nothing
+            totalCost += maze.cost(index);
 
-            if (next.type == CellType.GOAL)
+            if (index == maze.goalIndex()) {
+                walked = gene + 1;
                 break;
+            }
 
             // exploration reward
-            if (uniqueVisited.get(pos) == null) {
+            if (visitStamp[index] != stamp) {
                 fitness += 250;
-                uniqueVisited.put(new Point(pos), 1);
+                visitStamp[index] = stamp;
+                visitCount[index] = 1;
+                distinct++;
             } else {
                 // revisited old place
-                int visited = uniqueVisited.get(pos);
+                int visited = visitCount[index];
                 fitness -= 300 * Math.pow(visited, 2);
-                uniqueVisited.put(new Point(pos), visited + 1);
+                visitCount[index] = visited + 1;
                 if (visited >= 4) {
                     fitness -= 1_000_000;
-                    addPenalty(prev, move, 20.0);
+                    delta.add(prevR, prevC, move, DEAD_END_PENALTY);
                 }
             }
 
-            double currDist = Math.hypot(pos.x - goal.x, pos.y - goal.y);
+            double currDist = goalDistance[index];
 
             if (currDist < dist) {
                 fitness += 300;
@@ -374,32 +610,31 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             dist = currDist;
 
             // Loop detection
-            if (recent.contains(pos)) {
+            if (buffers.recentlyVisited(index)) {
                 fitness -= 4000;
             }
 
-            recent.add(pos);
-            if (recent.size() > 10)
-                recent.remove(0);
+            buffers.addRecent(index);
 
-            double penalty = getPenalty(prev, move);
+            double penalty = getPenalty(delta, mark, prevR, prevC, move);
             if (penalty > 0.0) {
                 // Heavily penalize moving into known bad areas
                 fitness -= penalty * 100;
             }
 
-            prev = pos;
+            prevR = r;
+            prevC = c;
             stepsTaken++;
         }
 
         // Global path quality
-        dist = Math.pow(pos.x - goal.x, 2) + Math.pow(pos.y - goal.y, 2);
+        dist = Math.pow(r - goal.x, 2) + Math.pow(c - goal.y, 2);
         dist = Math.sqrt(dist);
         // Reward getting closer to goal
         fitness += (maxDist - dist) * 500;
 
 
-        boolean goalReached = maze.getGoal().equals(pos);
+        boolean goalReached = r == goal.x && c == goal.y;
         if (goalReached) {
             fitness += 1_000_000;
             fitness -= totalCost * 300;
@@ -408,120 +643,42 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             fitness -= totalCost * 25;
         }
         // eliminate loop move
-        if (!goalReached && uniqueVisited.size() < stepsTaken * 0.4) {
+        if (!goalReached && distinct < stepsTaken * 0.4) {
             fitness = -500_000;
         }
         // elimiate wasted genes
-        if(!goalReached && stepsTaken == chromosome.length)
+        if(!goalReached && stepsTaken == length)
             fitness = -1_000_000;
-    
-        return new Moves(chromosome, fitness, totalCost, goalReached);
-    }
 
-    // Selection
-    private List<Moves> selection(ArrayList<Moves> fitness_scores, int count) {
-        int competitionSize = 4;
-        List<Moves> selected = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            Moves bestM = fitness_scores.get(rnd.nextInt(fitness_scores.size()));
-
-            for (int j = 1; j < competitionSize; j++) {
-                Moves competM = fitness_scores.get(rnd.nextInt(fitness_scores.size()));
-                if (competM.fitness > bestM.fitness) {
-                    bestM = competM;
-                }
-            }
-            selected.add(bestM);
-        }
-        return selected;
+        result.index = slot;
+        result.fitness = fitness;
+        result.totalCost = totalCost;
+        result.goalReached = goalReached;
+        chromosomes.setWalked(slot, walked);
     }
 
     // Crossover
-    private int[][] crossover(int[] p1, int[] p2) {
-        int n = p1.length;
+    // both children are bred straight into the next population
+    private void crossover(int p1, int p2) {
+        int c1 = nextPopulation.add();
+        int c2 = nextPopulation.add();
+        nextPopulation.copy(c1, population, p1);
+        nextPopulation.copy(c2, population, p2);
 
         if (rnd.nextDouble() > CROSSOVER_RATE) {
-            return new int[][] { p1.clone(), p2.clone() };
-        }
-
-        int a = rnd.nextInt(n);
-        int b = rnd.nextInt(n);
-
-        // ensure a < b
-        if (a > b) {
-            int temp = a;
-            a = b;
-            b = temp;
-        }
-
-        int[] c1 = p1.clone();
-        int[] c2 = p2.clone();
-
-        for (int i = a; i < b; i++) {
-            c1[i] = p2[i];
-            c2[i] = p1[i];
-        }
-
-        return new int[][] { c1, c2 };
-    }
-
-    private void mutation(Maze maze, int[] chromosome) {
-        int prev = -1;
-        Point pos = maze.getStart();
-        for (int i = 0; i < chromosome.length; i++) {
-
-            Point nextPos = getNextPosition(pos, chromosome[i]);
-
-            if (rnd.nextDouble() < MUTATION_RATE) {
-                // get all possible move from current point
-                List<Integer> validMoves = getValidMoves(maze, pos, prev);
-
-                // mutate the the best move based on current deadEndMemory score
-                if (!validMoves.isEmpty()) {
-                    int bestMove = -1;
-                    double bestScore = Double.NEGATIVE_INFINITY;
-
-                    for (int m : validMoves) {
-                        // if the score are exceed the PATH_HARD_BLOCK we will considered
-                        // it as a block path
-                        if (getPenalty(pos, m) > PATH_HARD_BLOCK)
-                            continue;
-
-                        nextPos = getNextPosition(pos, m);
-                        double score = rnd.nextDouble();
-                        if (score > bestScore) {
-                            bestScore = score;
-                            bestMove = m;
-                        }
-                    }
-
-                    if (bestMove >= 0) {
-                        chromosome[i] = bestMove;
-                        nextPos = getNextPosition(pos, bestMove);
-                    }
-                }
-            }
-
-            // Advance position safely
-            if (nextPos.x >= 0 && nextPos.x < maze.height()
-                    && nextPos.y >= 0 && nextPos.y < maze.width()
-                    && maze.get(nextPos.x, nextPos.y).type != CellType.WALL) {
-                pos = nextPos;
-                prev = chromosome[i];
-            } else {
-                break;
-            }
+            return;
         }
+        crossover.recombine(population, p1, p2, nextPopulation, c1, c2, rnd);
     }
 
     // Generate next generation
-    private List<int[]> generateNextPopulation(Maze maze, ArrayList<Moves> allFitnessScores,
+    private void generateNextPopulation(Maze maze, ArrayList<Moves> allFitnessScores,
             List<Moves> selectedParents) {
-        List<int[]> newPopulation = new ArrayList<>();
+        PackedPopulation newPopulation = nextPopulation;
 
-        // elitism t%
-        for (int i = 0; i < (MAX_POPULATION * 0.05); i++) {
-            newPopulation.add(allFitnessScores.get(i).moves.clone());
+        // elitism
+        for (int i = 0; i < (MAX_POPULATION * ELITE_RATIO); i++) {
+            newPopulation.copy(newPopulation.add(), population, allFitnessScores.get(i).index);
         }
 
         while (newPopulation.size() < MAX_POPULATION) {
@@ -529,40 +686,40 @@ public class GeneticAlgorithmVisualizer implements AnimatablePathfinder {
             int idx1 = rnd.nextInt(selectedParents.size());
             int idx2 = rnd.nextInt(selectedParents.size());
 
-            int[] p1 = selectedParents.get(idx1).moves;
-            int[] p2 = selectedParents.get(idx2).moves;
+            int p1 = selectedParents.get(idx1).index;
+            int p2 = selectedParents.get(idx2).index;
 
-            int[][] children = crossover(p1, p2);
+            crossover(p1, p2);
 
-            mutation(maze, children[0]);
-            mutation(maze, children[1]);
-            newPopulation.add(children[0]);
+            int child = newPopulation.size() - 2;
+            mutation.mutate(maze, deadEndMemory, newPopulation, child, rnd);
+            mutation.mutate(maze, deadEndMemory, newPopulation, child + 1, rnd);
 
-            if (newPopulation.size() < MAX_POPULATION)
-                newPopulation.add(children[1]);
+            // the second child only fills the spare slot
+            if (newPopulation.size() > MAX_POPULATION)
+                newPopulation.removeLast();
         }
-        return newPopulation;
     }
 
-    private List<int[]> localOptimaEscaped(Maze maze, ArrayList<Moves> best) {
+    private void localOptimaEscaped(Maze maze, ArrayList<Moves> best) {
         deadEndMemory.clear();
-        List<int[]> newPop = new ArrayList<>();
+        memoryVersion++;
+        PackedPopulation newPop = nextPopulation;
 
-        // elitism 5%
-        for (int i = 0; i < MAX_POPULATION * 0.05; i++) {
-            newPop.add(best.get(i).moves);
+        // elitism
+        for (int i = 0; i < MAX_POPULATION * ELITE_RATIO; i++) {
+            newPop.copy(newPop.add(), population, best.get(i).index);
         }
 
-        int length = best.get(0).moves.length;
+        int length = population.length();
         // Generate new guided genes for 55%
-        for (int j = 0; j < MAX_POPULATION * 0.55; j++) {
-            newPop.add(guidedChromosomes(maze, length));
+        for (int j = 0; j < MAX_POPULATION * 0.55 && newPop.size() < MAX_POPULATION; j++) {
+            guidedChromosomes(maze, newPop, length);
         }
 
         // Generate a random genes for  the 40% left
         while (newPop.size() < MAX_POPULATION) {
-            newPop.add(generateChromosomes(length));
+            generateChromosomes(newPop, length);
         }
-        return newPop;
     }
-}
\ No newline at end of file
+}
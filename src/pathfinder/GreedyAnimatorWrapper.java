@@ -1,8 +1,6 @@
 package pathfinder;
 
 import maze.Maze;
-import maze.Cell;
-import maze.CellType;
 import java.awt.Point;
 import java.util.*;
 
@@ -15,7 +13,8 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
     
     private boolean finished = false;
     private List<Point> finalPath = Collections.emptyList();
-    private List<Point> explored = new ArrayList<>(); 
+    private final Set<Point> explored = new HashSet<>();
+    private final ChangeFeed changes = new ChangeFeed();
     private int totalCost = 0;
 
     private final int[] dr = { -1, 1, 0, 0 };
@@ -54,6 +53,7 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
         
         pq.add(startNode);
         visited[start.x][start.y] = true;
+        changes.opened(maze.index(start.x, start.y));
     }
 
     private int heuristic(Point a, Point b) {
@@ -61,7 +61,7 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
     }
 
     private boolean isValid(Maze maze, int r, int c) {
-        if (r >= 0 && r < maze.height() && c >= 0 && c < maze.width() && maze.get(r, c).type != CellType.WALL) {
+        if (r >= 0 && r < maze.height() && c >= 0 && c < maze.width() && !maze.isWall(r, c)) {
             return true;
         }
         return false;
@@ -98,7 +98,12 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
 
     @Override
     public Set<Point> getClosedSet() {
-        return new HashSet<>(explored);
+        return explored;
+    }
+
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
     }
 
     @Override
@@ -111,6 +116,7 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
         Node current = pq.poll();
         
         explored.add(new Point(current.r, current.c));
+        changes.closed(maze.index(current.r, current.c));
         if (current.r == goal.x && current.c == goal.y) {
             finished = true;
             totalCost = current.pTimes;
@@ -124,13 +130,13 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
             if (isValid(maze, nr, nc) && !visited[nr][nc]) {
                 visited[nr][nc] = true;
                 
-                Cell nextCell = maze.get(nr, nc);
-                int newPtimes = current.pTimes + nextCell.value;
+                int newPtimes = current.pTimes + maze.cost(nr, nc);
                 
                 int h = heuristic(new Point(nr, nc), goal);
                 
                 Node neighbor = new Node(nr, nc, newPtimes, h, current);
                 pq.add(neighbor);
+                changes.opened(maze.index(nr, nc));
             }
         }
     }
@@ -140,6 +146,7 @@ public class GreedyAnimatorWrapper implements AnimatablePathfinder {
         Node curr = endNode;
         while (curr != null) {
             path.add(new Point(curr.r, curr.c));
+            changes.pathed(maze.index(curr.r, curr.c));
             curr = curr.from;
         }
         Collections.reverse(path);
@@ -0,0 +1,136 @@
+package pathfinder;
+
+import maze.Maze;
+import java.util.Random;
+
+// Walks the chromosome from the start and, with the given odds per gene,
+// swaps the move for a random one that neither turns back nor runs into a
+// move the hive mind has blocked. Stops at the first step off the maze or
+// into a wall.
+//
+// The genes to mutate are drawn as geometric gaps rather than one draw per
+// gene, which gives the same odds. Between them the walk jumps through the
+// part of the trace the chromosome inherited (see PackedPopulation), so
+// only the genes from the first change on are walked step by step. The
+// walk is traced again on the way for the next generation, along with the
+// gene the fitness walk will stop at when that can be told.
+public class GuidedMutation implements Mutation {
+    // {up,down,left,right}, the gene value is the position
+    private static final int[] dRow = { -1, 1, 0, 0 };
+    private static final int[] dCol = { 0, 0, -1, 1 };
+    private static final int[] bits = { 8, 4, 2, 1 };
+    private static final int[] reverse = { 1, 0, 3, 2 };
+
+    private final double rate;
+    private final double logKeep;   // log of the odds a gene is kept
+
+    public GuidedMutation(double rate) {
+        this.rate = rate;
+        this.logKeep = Math.log(1 - rate);
+    }
+
+    @Override
+    public void mutate(Maze maze, Penalties penalties, PackedPopulation genes, int slot, Random rnd) {
+        int cols = maze.width();
+        int length = genes.length();
+        int known = genes.traced(slot);
+        boolean knownEnds = genes.traceEnds(slot);
+
+        int prev = -1;
+        int r = maze.getStart().x;
+        int c = maze.getStart().y;
+        int i = 0;
+        int next = nextMutation(-1, length, rnd);
+        // the fitness walk stops at the goal too: as long as every jump stays
+        // within the genes known not to stop it, the steps find where it does
+        int goal = maze.goalIndex();
+        int walked = 0;
+        boolean walkKnown = true;
+        while (i < length) {
+            if (i < known && i < next) {
+                // jump to the next mutation, or as far as the trace goes,
+                // from the last traced cell before it
+                int target = Math.min(next, known);
+                if (walked == 0 && target > genes.openPrefix(slot))
+                    walkKnown = false;
+                int word = (target - 1) >>> 5;
+                int checkpoint = word << 5;
+                if (checkpoint > i) {
+                    int cell = genes.tracedCell(slot, word);
+                    r = cell / cols;
+                    c = cell % cols;
+                    i = checkpoint;
+                }
+                while (i < target) {
+                    int move = genes.gene(slot, i++);
+                    r += dRow[move];
+                    c += dCol[move];
+                }
+                prev = i > 0 ? genes.gene(slot, i - 1) : -1;
+                if (i == known && knownEnds && i != next) {
+                    genes.setTrace(slot, i, true);
+                    return;
+                }
+                continue;
+            }
+
+            if ((i & 31) == 0)
+                genes.traceCell(slot, i >>> 5, r * cols + c);
+            int move = genes.gene(slot, i);
+
+            if (i == next) {
+                int available = maze.availableDirection(r, c);
+                int bestMove = -1;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int m = 0; m < 4; m++) {
+                    if ((available & bits[m]) == 0 || (prev >= 0 && m == reverse[prev])
+                            || penalties.get(r, c, m) > GeneticAlgorithmVisualizer.PATH_HARD_BLOCK)
+                        continue;
+                    double score = rnd.nextDouble();
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestMove = m;
+                    }
+                }
+
+                if (bestMove >= 0 && bestMove != move) {
+                    genes.setGene(slot, i, bestMove);
+                    move = bestMove;
+                    known = Math.min(known, i);
+                }
+                next = nextMutation(i, length, rnd);
+            }
+
+            // Advance position safely
+            int nextR = r + dRow[move];
+            int nextC = c + dCol[move];
+            if (nextR >= 0 && nextR < maze.height() && nextC >= 0 && nextC < maze.width()
+                    && !maze.isWall(nextR, nextC)) {
+                r = nextR;
+                c = nextC;
+                prev = move;
+                i++;
+                if (walked == 0 && r * cols + c == goal)
+                    walked = i;
+            } else {
+                genes.setTrace(slot, i, true);
+                if (walkKnown)
+                    genes.setWalked(slot, walked > 0 ? walked : i + 1);
+                return;
+            }
+        }
+        genes.setTrace(slot, length, false);
+        if (walkKnown)
+            genes.setWalked(slot, walked > 0 ? walked : length);
+    }
+
+    // the gene after index that mutates next, length or more for none
+    private int nextMutation(int index, int length, Random rnd) {
+        if (rate <= 0)
+            return length;
+        if (rate >= 1)
+            return index + 1;
+        double gap = Math.floor(Math.log(1 - rnd.nextDouble()) / logKeep);
+        return (int) Math.min(index + 1 + gap, length);
+    }
+}
@@ -0,0 +1,7 @@
+package pathfinder;
+
+// Lower bound on the cost of moving from one cell to another, by cell index.
+// Implementations are shared between threads, see RouteService.
+public interface Heuristic {
+    int estimate(int from, int to);
+}
@@ -0,0 +1,224 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+
+// Hierarchical A* (HPA*) over a precomputed ClusterGraph.
+//
+// Each query links the start to the entrances of its cluster and those
+// entrances to the goal, searches the small abstract graph step by step and
+// finally refines every abstract edge into cells with a search inside one
+// cluster. The ClusterGraph can be shared, so only the query part is paid
+// again for every new start and goal on the same maze.
+public class HierarchicalAnimatorWrapper implements AnimatablePathfinder {
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final ClusterGraph graph;
+    private final ClusterGraph.LocalSearch search;
+    private final int START, GOAL;              // query nodes after the graph's own
+
+    private final IndexedMinHeap pq;
+    private final int[] path;                   // best known cost by node
+    private final int[] from;                   // previous node, -1 for none
+    private final Map<Integer, Integer> toGoal = new HashMap<>();  // last edge cost by node
+    private final int[] startTargets, startCosts;
+    private final Set<Point> closedSet = new HashSet<>();
+    private final ChangeFeed changes = new ChangeFeed();
+    private final Point goal;
+    private int expanded = 0;
+
+    private boolean finished = false;
+    private List<Point> finalPath = Collections.emptyList();
+    private int totalCost = -1;
+
+    public HierarchicalAnimatorWrapper(Maze maze, boolean exact) {
+        this(new ClusterGraph(maze, ClusterGraph.DEFAULT_CLUSTER_SIZE, exact));
+    }
+
+    public HierarchicalAnimatorWrapper(ClusterGraph graph) {
+        this.maze = graph.maze();
+        this.graph = graph;
+        this.search = graph.newLocalSearch();
+        this.goal = maze.getGoal();
+
+        int nodes = graph.nodeCount();
+        START = nodes;
+        GOAL = nodes + 1;
+        pq = new IndexedMinHeap(nodes + 2);
+        path = new int[nodes + 2];
+        from = new int[nodes + 2];
+        Arrays.fill(path, INF);
+
+        int start = maze.startIndex();
+        int goalIndex = maze.goalIndex();
+        int[] startCluster = graph.nodesIn(graph.clusterOf(start));
+        int[] goalCluster = graph.nodesIn(graph.clusterOf(goalIndex));
+
+        // start to the entrances of its cluster, and straight to the goal
+        // when both share a cluster
+        search.run(start, -1, false);
+        int[] targets = new int[startCluster.length + 1];
+        int[] costs = new int[startCluster.length + 1];
+        int count = 0;
+        for (int node : startCluster) {
+            if (search.distance(graph.cellOf(node)) != INF) {
+                targets[count] = node;
+                costs[count++] = search.distance(graph.cellOf(node));
+            }
+        }
+        if (search.distance(goalIndex) != INF) {
+            targets[count] = GOAL;
+            costs[count++] = search.distance(goalIndex);
+        }
+        startTargets = Arrays.copyOf(targets, count);
+        startCosts = Arrays.copyOf(costs, count);
+
+        // entrances of the goal's cluster to the goal
+        search.run(goalIndex, -1, true);
+        for (int node : goalCluster) {
+            if (search.distance(graph.cellOf(node)) != INF)
+                toGoal.put(node, search.distance(graph.cellOf(node)));
+        }
+
+        path[START] = 0;
+        from[START] = -1;
+        pq.insertOrDecrease(START, heuristic(start));
+        changes.opened(start);
+    }
+
+    // Manhattan distance less the free step onto the goal
+    private int heuristic(int index) {
+        return Math.max(0, Math.abs(maze.row(index) - goal.x) + Math.abs(maze.col(index) - goal.y) - 1);
+    }
+
+    private int cellOf(int node) {
+        if (node == START)
+            return maze.startIndex();
+        if (node == GOAL)
+            return maze.goalIndex();
+        return graph.cellOf(node);
+    }
+
+    @Override
+    public String getName() {
+        return graph.isExact() ? "HPA* (Exact)" : "HPA*";
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int getTotalCost() {
+        return totalCost;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public List<Point> getPath() {
+        return finished ? finalPath : Collections.emptyList();
+    }
+
+    @Override
+    public Set<Point> getOpenSet() {
+        Set<Point> openSet = new HashSet<>();
+        pq.forEach(node -> openSet.add(new Point(maze.row(cellOf(node)), maze.col(cellOf(node)))));
+        return openSet;
+    }
+
+    @Override
+    public Set<Point> getClosedSet() {
+        return closedSet;
+    }
+
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
+    }
+
+    @Override
+    public void nextStep() {
+        if (finished || pq.isEmpty()) {
+            finished = true;
+            return;
+        }
+
+        int current = pq.poll();
+        if (current == GOAL) {
+            finished = true;
+            totalCost = path[GOAL];
+            refine();
+            return;
+        }
+
+        int cell = cellOf(current);
+        closedSet.add(new Point(maze.row(cell), maze.col(cell)));
+        changes.closed(cell);
+        expanded++;
+
+        if (current == START) {
+            for (int i = 0; i < startTargets.length; i++) {
+                relax(current, startTargets[i], startCosts[i]);
+            }
+            return;
+        }
+
+        int[] targets = graph.edgeTargets(current);
+        int[] costs = graph.edgeCosts(current);
+        for (int i = 0; i < targets.length; i++) {
+            relax(current, targets[i], costs[i]);
+        }
+        Integer last = toGoal.get(current);
+        if (last != null)
+            relax(current, GOAL, last);
+    }
+
+    private void relax(int current, int next, int edgeCost) {
+        int newCost = path[current] + edgeCost;
+        if (newCost < path[next]) {
+            if (path[next] == INF)
+                changes.opened(cellOf(next));
+            path[next] = newCost;
+            from[next] = current;
+            pq.insertOrDecrease(next, newCost + heuristic(cellOf(next)));
+        }
+    }
+
+    // turns the abstract nodes into cells: edges between clusters are single
+    // steps, edges inside a cluster are searched for again
+    private void refine() {
+        List<Integer> nodes = new ArrayList<>();
+        for (int trace = GOAL; trace >= 0; trace = from[trace]) {
+            nodes.add(trace);
+        }
+        Collections.reverse(nodes);
+
+        List<Integer> cells = new ArrayList<>();
+        cells.add(maze.startIndex());
+        for (int i = 1; i < nodes.size(); i++) {
+            int a = cellOf(nodes.get(i - 1));
+            int b = cellOf(nodes.get(i));
+            if (a == b)
+                continue;
+            if (graph.clusterOf(a) != graph.clusterOf(b)) {
+                cells.add(b);
+            } else {
+                search.run(a, b, false);
+                search.appendPath(b, cells);
+            }
+        }
+
+        finalPath = new ArrayList<>(cells.size());
+        for (int cell : cells) {
+            finalPath.add(new Point(maze.row(cell), maze.col(cell)));
+            changes.pathed(cell);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pathfinder;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Binary min heap of cell indices with long priorities, for searches whose
+// keys do not fit an int (see LpaStarAnimatorWrapper). Like IndexedMinHeap
+// but a queued key can also be raised or taken out.
+public class IndexedLongMinHeap {
+    private final int[] heap;      // keys in heap order
+    private final long[] priority; // priority by key
+    private final int[] position;  // heap slot by key, -1 when not queued
+    private int size = 0;
+
+    public IndexedLongMinHeap(int capacity) {
+        heap = new int[capacity];
+        priority = new long[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int key) {
+        return position[key] >= 0;
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public long peekPriority() {
+        return priority[heap[0]];
+    }
+
+    // inserts the key or moves it to the new priority, up or down
+    public void insertOrUpdate(int key, long newPriority) {
+        int slot = position[key];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = key;
+            position[key] = slot;
+            priority[key] = newPriority;
+            siftUp(slot);
+            return;
+        }
+        long old = priority[key];
+        priority[key] = newPriority;
+        if (newPriority < old)
+            siftUp(slot);
+        else
+            siftDown(slot);
+    }
+
+    public int poll() {
+        int min = heap[0];
+        removeAt(0);
+        return min;
+    }
+
+    public void remove(int key) {
+        int slot = position[key];
+        if (slot >= 0)
+            removeAt(slot);
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(heap[i]);
+        }
+    }
+
+    private void removeAt(int slot) {
+        position[heap[slot]] = -1;
+        size--;
+        if (slot == size)
+            return;
+        // the last key fills the hole and may belong above or below it
+        int moved = heap[size];
+        heap[slot] = moved;
+        position[moved] = slot;
+        siftDown(slot);
+        if (position[moved] == slot)
+            siftUp(slot);
+    }
+
+    private void siftUp(int slot) {
+        int key = heap[slot];
+        long p = priority[key];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentKey = heap[parent];
+            if (priority[parentKey] <= p)
+                break;
+            heap[slot] = parentKey;
+            position[parentKey] = slot;
+            slot = parent;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int key = heap[slot];
+        long p = priority[key];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && priority[heap[right]] < priority[heap[child]])
+                child = right;
+            int childKey = heap[child];
+            if (p <= priority[childKey])
+                break;
+            heap[slot] = childKey;
+            position[childKey] = slot;
+            slot = child;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+}
@@ -0,0 +1,126 @@
+package pathfinder;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Binary min heap of cell indices with int priorities.
+// position[] remembers where every key sits in the heap so a key is only
+// ever stored once and its priority can be lowered in place (decrease-key).
+public class IndexedMinHeap implements CellPriorityQueue {
+    private final int[] heap;      // keys in heap order
+    private final int[] priority;  // priority by key
+    private final int[] position;  // heap slot by key, -1 when not queued
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        priority = new int[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int key) {
+        return position[key] >= 0;
+    }
+
+    public int priority(int key) {
+        return priority[key];
+    }
+
+    // key in heap slot i, for walking the open set
+    public int keyAt(int i) {
+        return heap[i];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    @Override
+    public void insertOrDecrease(int key, int newPriority) {
+        int slot = position[key];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = key;
+            position[key] = slot;
+        } else if (newPriority >= priority[key]) {
+            return;
+        }
+        priority[key] = newPriority;
+        siftUp(slot);
+    }
+
+    @Override
+    public int poll() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(heap[i]);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int key = heap[slot];
+        int p = priority[key];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentKey = heap[parent];
+            if (priority[parentKey] <= p)
+                break;
+            heap[slot] = parentKey;
+            position[parentKey] = slot;
+            slot = parent;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int key = heap[slot];
+        int p = priority[key];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && priority[heap[right]] < priority[heap[child]])
+                child = right;
+            int childKey = heap[child];
+            if (p <= priority[childKey])
+                break;
+            heap[slot] = childKey;
+            position[childKey] = slot;
+            slot = child;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+}
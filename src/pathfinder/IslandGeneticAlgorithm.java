@@ -0,0 +1,186 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Island model: several GeneticAlgorithmVisualizer populations evolve side
+// by side, one step each per generation on their own threads, and every
+// few generations their best chromosomes migrate to the neighbouring
+// islands, replacing the last bred ones there. Islands keep their own dead
+// end memory, which can also be merged every few generations.
+//
+// The settings come from GAConfig: population is shared out between the
+// islands, see islands, migration-interval, migration-rate, topology and
+// memory-merge-interval. Islands are seeded from the one seed and migration
+// runs between steps, so a seed gives the same run on any number of threads.
+// The path and cost shown are the best of any island.
+public class IslandGeneticAlgorithm implements AnimatablePathfinder {
+    private final GeneticAlgorithmVisualizer[] islands;
+    private final ForkJoinPool pool;        // see ScoringPools, null with a single thread
+    private final boolean ring;
+    private final int migrationInterval;
+    private final int migrants;             // sent by each island per migration
+    private final int memoryMergeInterval;  // 0 for never
+    private final PackedPopulation[] outgoing;
+    private final PackedPopulation incoming;
+
+    private int generation = 0;
+    private int best = 0;                   // island with the best chromosome so far
+    private boolean finished = false;
+    private boolean logging = true;
+
+    public IslandGeneticAlgorithm(Maze maze, long seed, GAConfig config) {
+        int count = config.islands() > 0 ? config.islands() : Runtime.getRuntime().availableProcessors();
+        GAConfig islandConfig = config.copy();
+        islandConfig.set("population", String.valueOf(Math.max(2, config.population() / count)));
+
+        // a thread steps one island at a time, so the islands share one
+        // scratch per thread instead of each keeping its own
+        int threads = Math.min(count, Runtime.getRuntime().availableProcessors());
+        ScratchPool<FitnessScratch> scratch = GeneticAlgorithmVisualizer.scratchPool(maze, threads);
+        islands = new GeneticAlgorithmVisualizer[count];
+        for (int i = 0; i < count; i++) {
+            islands[i] = new GeneticAlgorithmVisualizer(maze, seed + i * 0x9E3779B97F4A7C15L, 1, islandConfig,
+                    scratch);
+            islands[i].setLogging(false);
+        }
+
+        this.pool = threads > 1 ? ScoringPools.get(threads) : null;
+        this.ring = config.topology().equals("ring");
+        this.migrationInterval = config.migrationInterval();
+        this.migrants = Math.max(1, (int) (islandConfig.population() * config.migrationRate()));
+        this.memoryMergeInterval = config.memoryMergeInterval();
+
+        int length = islands[0].chromosomeLength();
+        outgoing = new PackedPopulation[count];
+        for (int i = 0; i < count; i++) {
+            outgoing[i] = new PackedPopulation(migrants, length);
+        }
+        incoming = new PackedPopulation(migrants * Math.max(1, count - 1), length);
+    }
+
+    // progress lines on stdout, off for headless runs
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    public int islandCount() {
+        return islands.length;
+    }
+
+    @Override
+    public String getName() {
+        return "GA Islands x" + islands.length + " (Gen: " + generation + ")";
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int getTotalCost() {
+        return islands[best].getTotalCost();
+    }
+
+    // chromosomes scored on every island
+    @Override
+    public int getExpandedCount() {
+        int evaluations = 0;
+        for (GeneticAlgorithmVisualizer island : islands) {
+            evaluations += island.getExpandedCount();
+        }
+        return evaluations;
+    }
+
+    @Override
+    public List<Point> getPath() {
+        return islands[best].getPath();
+    }
+
+    @Override
+    public Set<Point> getOpenSet() {
+        return Collections.emptySet();
+    }
+
+    // the dead end memory of the island holding the best path
+    @Override
+    public Set<Point> getClosedSet() {
+        return islands[best].getClosedSet();
+    }
+
+    @Override
+    public void nextStep() {
+        if (finished)
+            return;
+
+        if (pool == null) {
+            for (GeneticAlgorithmVisualizer island : islands)
+                island.nextStep();
+        } else {
+            pool.submit(() -> IntStream.range(0, islands.length).parallel().forEach(i -> islands[i].nextStep()))
+                    .join();
+        }
+        generation++;
+
+        finished = true;
+        for (int i = 0; i < islands.length; i++) {
+            if (islands[i].bestFitness() > islands[best].bestFitness())
+                best = i;
+            finished &= islands[i].isFinished();
+        }
+        log("Generation " + (generation - 1) + " Best Fitness: " + islands[best].bestFitness() + " (island " + best
+                + ")");
+        if (finished) {
+            log(islands[best].goalReached() ? "Goal Reached!" : "Given up (Stagnant)");
+            return;
+        }
+
+        if (generation % migrationInterval == 0)
+            migrate();
+        if (memoryMergeInterval > 0 && generation % memoryMergeInterval == 0)
+            mergeMemories();
+    }
+
+    private void log(String message) {
+        if (logging)
+            System.out.println(message);
+    }
+
+    // ring: island i sends to i + 1, full: every island sends to every other
+    private void migrate() {
+        int n = islands.length;
+        for (int i = 0; i < n; i++) {
+            outgoing[i].clear();
+            if (!islands[i].isFinished())
+                islands[i].emigrants(outgoing[i], migrants);
+        }
+
+        for (int to = 0; to < n; to++) {
+            if (islands[to].isFinished())
+                continue;
+            incoming.clear();
+            for (int from = 0; from < n; from++) {
+                if (from == to || (ring && (from + 1) % n != to))
+                    continue;
+                for (int slot = 0; slot < outgoing[from].size(); slot++) {
+                    incoming.copy(incoming.add(), outgoing[from], slot);
+                }
+            }
+            islands[to].immigrate(incoming);
+        }
+    }
+
+    // every island ends up with the largest penalty any island has for a move
+    private void mergeMemories() {
+        for (int i = 1; i < islands.length; i++) {
+            islands[0].absorbMemory(islands[i]);
+        }
+        for (int i = 1; i < islands.length; i++) {
+            islands[i].absorbMemory(islands[0]);
+        }
+    }
+}
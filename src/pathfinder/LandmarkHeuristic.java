@@ -0,0 +1,40 @@
+package pathfinder;
+
+import maze.Maze;
+
+// ALT heuristic: landmarks and the triangle inequality. For a landmark L
+//   d(L,to) <= d(L,from) + d(from,to)   and   d(from,L) <= d(from,to) + d(to,L)
+// so both differences are lower bounds on d(from,to). The best of them over
+// every landmark, and the Manhattan bound, is used.
+public class LandmarkHeuristic implements Heuristic {
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final LandmarkTable table;
+    private final ManhattanHeuristic manhattan;
+
+    public LandmarkHeuristic(Maze maze, LandmarkTable table) {
+        this.table = table;
+        this.manhattan = new ManhattanHeuristic(maze);
+    }
+
+    public LandmarkTable table() {
+        return table;
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int best = manhattan.estimate(from, to);
+        for (int i = 0; i < table.count(); i++) {
+            int fromL = table.fromLandmark(i, from);
+            int toL = table.fromLandmark(i, to);
+            if (fromL != INF && toL != INF)
+                best = Math.max(best, toL - fromL);
+
+            fromL = table.toLandmark(i, from);
+            toL = table.toLandmark(i, to);
+            if (fromL != INF && toL != INF)
+                best = Math.max(best, fromL - toL);
+        }
+        return best;
+    }
+}
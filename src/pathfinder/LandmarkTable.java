@@ -0,0 +1,239 @@
+package pathfinder;
+
+import maze.Maze;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Exact costs between a few landmark cells and every other cell, for the
+// ALT heuristic (see LandmarkHeuristic).
+//
+// Moving onto a cell costs that cell, so costs depend on the direction:
+// fromLandmark[i][v] is the cost from landmark i to v, toLandmark[i][v] the
+// cost from v to landmark i. Unreachable cells hold Integer.MAX_VALUE.
+//
+// Tables can be saved next to their map, little endian:
+//   int magic "MALT", int version, int rows, int cols, int landmarks,
+//   long fingerprint of costs and walls,
+//   int landmark cells, then per landmark the from and to tables
+public class LandmarkTable {
+    public static final int DEFAULT_LANDMARKS = 8;
+    public static final String EXTENSION = ".alt";
+
+    private static final int MAGIC = 0x54_4C_41_4D; // "MALT" read little endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final int[] landmarks;         // cell index by landmark
+    private final int[][] fromLandmark;
+    private final int[][] toLandmark;
+
+    private LandmarkTable(int[] landmarks, int[][] fromLandmark, int[][] toLandmark) {
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    // one forward and one backward Dijkstra per landmark, landmarks in parallel
+    public static LandmarkTable compute(Maze maze, int count) {
+        int[] landmarks = pickLandmarks(maze, count);
+        int[][] from = new int[landmarks.length][];
+        int[][] to = new int[landmarks.length][];
+        IntStream.range(0, 2 * landmarks.length).parallel().forEach(task -> {
+            int i = task >> 1;
+            if ((task & 1) == 0)
+                from[i] = distances(maze, landmarks[i], false);
+            else
+                to[i] = distances(maze, landmarks[i], true);
+        });
+        return new LandmarkTable(landmarks, from, to);
+    }
+
+    // the saved table next to the map when it still matches the maze,
+    // otherwise a new one which is saved for next time
+    public static LandmarkTable loadOrCompute(Path map, Maze maze) {
+        Path file = tableFile(map);
+        if (Files.exists(file)) {
+            try {
+                LandmarkTable table = load(file, maze);
+                if (table != null)
+                    return table;
+            } catch (IOException e) {
+                System.err.println("Ignoring " + file + ": " + e.getMessage());
+            }
+        }
+
+        LandmarkTable table = compute(maze, DEFAULT_LANDMARKS);
+        try {
+            table.save(file, maze);
+        } catch (IOException e) {
+            System.err.println("Could not save " + file + ": " + e.getMessage());
+        }
+        return table;
+    }
+
+    public static Path tableFile(Path map) {
+        String name = map.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return map.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + EXTENSION);
+    }
+
+    public int count() {
+        return landmarks.length;
+    }
+
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    public int fromLandmark(int i, int index) {
+        return fromLandmark[i][index];
+    }
+
+    public int toLandmark(int i, int index) {
+        return toLandmark[i][index];
+    }
+
+    public void save(Path file, Maze maze) throws IOException {
+        int cells = maze.cellCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE + 4 * landmarks.length).order(ByteOrder.LITTLE_ENDIAN);
+            head.putInt(MAGIC).putInt(VERSION).putInt(maze.height()).putInt(maze.width());
+            head.putInt(landmarks.length).putLong(fingerprint(maze));
+            for (int landmark : landmarks) {
+                head.putInt(landmark);
+            }
+            head.flip();
+            write(channel, head);
+
+            ByteBuffer out = ByteBuffer.allocateDirect(4 * cells).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < landmarks.length; i++) {
+                out.clear();
+                out.asIntBuffer().put(fromLandmark[i]);
+                write(channel, out);
+                out.clear();
+                out.asIntBuffer().put(toLandmark[i]);
+                write(channel, out);
+            }
+        }
+    }
+
+    // null when the file was made for a different maze
+    public static LandmarkTable load(Path file, Maze maze) throws IOException {
+        int cells = maze.cellCount();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IOException("too short for a landmark table");
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (data.getInt(0) != MAGIC)
+                throw new IOException("not a landmark table");
+            if (data.getInt(4) != VERSION)
+                throw new IOException("unsupported landmark table version " + data.getInt(4));
+            if (data.getInt(8) != maze.height() || data.getInt(12) != maze.width()
+                    || data.getLong(20) != fingerprint(maze))
+                return null;
+
+            int count = data.getInt(16);
+            long expected = HEADER_SIZE + 4L * count + 8L * count * cells;
+            if (count < 0 || channel.size() != expected)
+                throw new IOException("expected " + expected + " bytes but found " + channel.size());
+
+            data.position(HEADER_SIZE);
+            IntBuffer ints = data.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[] landmarks = new int[count];
+            ints.get(landmarks);
+            int[][] from = new int[count][cells];
+            int[][] to = new int[count][cells];
+            for (int i = 0; i < count; i++) {
+                ints.get(from[i]);
+                ints.get(to[i]);
+            }
+            return new LandmarkTable(landmarks, from, to);
+        }
+    }
+
+    // Spreads landmarks around the border: the open cell farthest from the
+    // middle in each of count equal angles.
+    private static int[] pickLandmarks(Maze maze, int count) {
+        double midR = (maze.height() - 1) / 2.0;
+        double midC = (maze.width() - 1) / 2.0;
+        int[] best = new int[count];
+        double[] bestDistance = new double[count];
+        Arrays.fill(best, -1);
+
+        for (int index = 0; index < maze.cellCount(); index++) {
+            if (maze.isWall(index))
+                continue;
+            double dr = maze.row(index) - midR;
+            double dc = maze.col(index) - midC;
+            double angle = Math.atan2(dr, dc) + Math.PI;
+            int sector = Math.min(count - 1, (int) (angle / (2 * Math.PI) * count));
+            double distance = dr * dr + dc * dc;
+            if (best[sector] < 0 || distance > bestDistance[sector]) {
+                best[sector] = index;
+                bestDistance[sector] = distance;
+            }
+        }
+        return Arrays.stream(best).filter(index -> index >= 0).toArray();
+    }
+
+    // costs from source to every cell, or from every cell to source
+    private static int[] distances(Maze maze, int source, boolean backward) {
+        int cols = maze.width();
+        int[] dist = new int[maze.cellCount()];
+        Arrays.fill(dist, INF);
+        IndexedMinHeap pq = new IndexedMinHeap(maze.cellCount());
+        dist[source] = 0;
+        pq.insertOrDecrease(source, 0);
+
+        // {up,down,left,right}
+        int[] dRow = { -1, 1, 0, 0 };
+        int[] dCol = { 0, 0, -1, 1 };
+        int[] bits = { 8, 4, 2, 1 };
+
+        while (!pq.isEmpty()) {
+            int current = pq.poll();
+            int r = current / cols;
+            int c = current % cols;
+            int available = maze.directions(current);
+            for (int i = 0; i < 4; i++) {
+                if ((available & bits[i]) == 0)
+                    continue;
+                int next = (r + dRow[i]) * cols + (c + dCol[i]);
+                int newCost = dist[current] + maze.cost(backward ? current : next);
+                if (newCost < dist[next]) {
+                    dist[next] = newCost;
+                    pq.insertOrDecrease(next, newCost);
+                }
+            }
+        }
+        return dist;
+    }
+
+    // FNV-1a over every cell's cost and wall flag
+    static long fingerprint(Maze maze) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < maze.cellCount(); index++) {
+            int value = maze.isWall(index) ? -1 : maze.cost(index);
+            hash = (hash ^ value) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
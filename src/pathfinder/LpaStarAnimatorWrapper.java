@@ -0,0 +1,272 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+
+// Lifelong Planning A* (LPA*): an A* that can be told about edited cells
+// and then repairs its search instead of starting over.
+//
+// g[v] is the cost of v as last expanded, rhs[v] the cost its neighbours
+// offer right now: cost(v) + the smallest g of an open neighbour. Cells
+// where the two differ are queued by [min(g, rhs) + h, min(g, rhs)], so an
+// edit only requeues the edited cell and its neighbours and the search
+// spreads from there as far as the change matters.
+//
+// Edits go through setCost, setWall and setOpen, which change the maze and
+// start a new round of steps. getExpandedCount counts the current round.
+// Cells other than start and goal must cost at least 1: ties between free
+// steps can leave a stale cost behind.
+public class LpaStarAnimatorWrapper implements AnimatablePathfinder {
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final int cols;
+    private final int start, goal;
+    private final int[] g, rhs;
+    private final IndexedLongMinHeap pq;
+    private final int[] queue, next, seen;   // path tracing, seen holds the round
+    private int round = 0;
+    private final Set<Point> closedSet = new HashSet<>();
+    private int minCost;        // heuristic scale, lowered when an edit undercuts it
+    private int expanded = 0;
+
+    private boolean finished = false;
+    private List<Point> finalPath = Collections.emptyList();
+    private int totalCost = -1;
+
+    // {up,down,left,right}
+    private final int[] dRow = { -1, 1, 0, 0 };
+    private final int[] dCol = { 0, 0, -1, 1 };
+    private final int[] bits = { 8, 4, 2, 1 };
+
+    public LpaStarAnimatorWrapper(Maze maze) {
+        this.maze = maze;
+        this.cols = maze.width();
+        this.start = maze.startIndex();
+        this.goal = maze.goalIndex();
+        this.minCost = maze.minCost();
+        if (minCost < 1)
+            throw new IllegalArgumentException("LPA* needs every cell other than start and goal to cost at least 1");
+
+        g = new int[maze.cellCount()];
+        rhs = new int[maze.cellCount()];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        pq = new IndexedLongMinHeap(maze.cellCount());
+        queue = new int[maze.cellCount()];
+        next = new int[maze.cellCount()];
+        seen = new int[maze.cellCount()];
+
+        rhs[start] = 0;
+        pq.insertOrUpdate(start, key(start));
+    }
+
+    // Every step costs at least minCost except the free one onto the goal.
+    // Edges into the start would break consistency but are never used, the
+    // start keeps rhs 0.
+    private int heuristic(int index) {
+        int steps = Math.abs(index / cols - goal / cols) + Math.abs(index % cols - goal % cols);
+        return minCost * Math.max(0, steps - 1);
+    }
+
+    // [k1, k2] packed so that comparing the longs compares the pairs
+    private long key(int index) {
+        int best = Math.min(g[index], rhs[index]);
+        if (best == INF)
+            return Long.MAX_VALUE;
+        long k1 = Math.min((long) best + heuristic(index), INF);
+        return (k1 << 32) | best;
+    }
+
+    @Override
+    public String getName() {
+        return "LPA* (Incremental)";
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int getTotalCost() {
+        return totalCost;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public List<Point> getPath() {
+        return finished ? finalPath : Collections.emptyList();
+    }
+
+    @Override
+    public Set<Point> getOpenSet() {
+        Set<Point> openSet = new HashSet<>();
+        pq.forEach(cell -> openSet.add(new Point(maze.row(cell), maze.col(cell))));
+        return openSet;
+    }
+
+    @Override
+    public Set<Point> getClosedSet() {
+        return closedSet;
+    }
+
+    @Override
+    public void nextStep() {
+        if (finished)
+            return;
+
+        // Stepping onto the goal is free, so a neighbour tied with the goal's
+        // key can still change it: only stop once every queued key is larger.
+        if ((pq.isEmpty() || pq.peekPriority() > key(goal)) && rhs[goal] == g[goal]) {
+            finish();
+            return;
+        }
+
+        int current = pq.poll();
+        closedSet.add(new Point(maze.row(current), maze.col(current)));
+        expanded++;
+
+        if (g[current] > rhs[current]) {
+            g[current] = rhs[current];
+        } else {
+            g[current] = INF;
+            updateCell(current);
+        }
+        updateNeighbours(current);
+    }
+
+    // runs the current round to the end
+    public int replan() {
+        while (!finished) {
+            nextStep();
+        }
+        return totalCost;
+    }
+
+    public void setCost(int index, int cost) {
+        checkCost(cost);
+        maze.setCost(index, cost);
+        lowerMinCost(cost);
+        updateCell(index);
+        newRound();
+    }
+
+    public void setWall(int index) {
+        maze.setWall(index);
+        updateCell(index);
+        updateNeighbours(index);
+        newRound();
+    }
+
+    public void setOpen(int index, int cost) {
+        checkCost(cost);
+        maze.setOpen(index, cost);
+        lowerMinCost(cost);
+        updateCell(index);
+        updateNeighbours(index);
+        newRound();
+    }
+
+    private static void checkCost(int cost) {
+        if (cost < 1)
+            throw new IllegalArgumentException("LPA* needs cell costs of at least 1, got " + cost);
+    }
+
+    private void newRound() {
+        finished = false;
+        finalPath = Collections.emptyList();
+        totalCost = -1;
+        expanded = 0;
+        closedSet.clear();
+    }
+
+    // a smaller heuristic keeps g and rhs valid, only the queue order changes
+    private void lowerMinCost(int cost) {
+        if (cost >= minCost)
+            return;
+        minCost = cost;
+        int[] queued = new int[pq.size()];
+        int[] count = { 0 };
+        pq.forEach(cell -> queued[count[0]++] = cell);
+        for (int cell : queued) {
+            pq.insertOrUpdate(cell, key(cell));
+        }
+    }
+
+    private void updateNeighbours(int index) {
+        int r = index / cols;
+        int c = index % cols;
+        int available = maze.directions(index);
+        for (int i = 0; i < 4; i++) {
+            if ((available & bits[i]) != 0)
+                updateCell((r + dRow[i]) * cols + (c + dCol[i]));
+        }
+    }
+
+    private void updateCell(int index) {
+        if (index != start)
+            rhs[index] = maze.isWall(index) ? INF : offered(index);
+
+        if (g[index] != rhs[index])
+            pq.insertOrUpdate(index, key(index));
+        else
+            pq.remove(index);
+    }
+
+    // cheapest way onto the cell through an open neighbour
+    private int offered(int index) {
+        int best = INF;
+        int r = index / cols;
+        int c = index % cols;
+        int available = maze.directions(index);
+        for (int i = 0; i < 4; i++) {
+            if ((available & bits[i]) != 0)
+                best = Math.min(best, g[(r + dRow[i]) * cols + (c + dCol[i])]);
+        }
+        return best == INF ? INF : best + maze.cost(index);
+    }
+
+    private void finish() {
+        finished = true;
+        if (g[goal] == INF)
+            return;
+
+        totalCost = g[goal];
+
+        // Walk back from the goal over neighbours whose g plus the step
+        // equals the cell's g. Cells the round did not reach may still hold
+        // old values that happen to match, so this is a breadth first
+        // search that can back out of such branches.
+        round++;
+        int head = 0, tail = 0;
+        queue[tail++] = goal;
+        seen[goal] = round;
+        next[goal] = -1;
+        while (head < tail && seen[start] != round) {
+            int current = queue[head++];
+            int r = current / cols;
+            int c = current % cols;
+            int available = maze.directions(current);
+            for (int i = 0; i < 4; i++) {
+                int prev = (r + dRow[i]) * cols + (c + dCol[i]);
+                if ((available & bits[i]) == 0 || seen[prev] == round || g[prev] == INF
+                        || (long) g[prev] + maze.cost(current) != g[current])
+                    continue;
+                seen[prev] = round;
+                next[prev] = current;
+                queue[tail++] = prev;
+            }
+        }
+
+        finalPath = new ArrayList<>();
+        for (int trace = start; trace >= 0; trace = next[trace]) {
+            finalPath.add(new Point(maze.row(trace), maze.col(trace)));
+        }
+    }
+}
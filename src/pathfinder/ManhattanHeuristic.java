@@ -0,0 +1,21 @@
+package pathfinder;
+
+import maze.Maze;
+
+// Every step costs at least the cheapest open cell, except stepping onto
+// the maze's own start and goal which cost nothing, so two steps are free.
+public class ManhattanHeuristic implements Heuristic {
+    private final int cols;
+    private final int minCost;
+
+    public ManhattanHeuristic(Maze maze) {
+        this.cols = maze.width();
+        this.minCost = maze.minCost();
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        int steps = Math.abs(from / cols - to / cols) + Math.abs(from % cols - to % cols);
+        return minCost * Math.max(0, steps - 2);
+    }
+}
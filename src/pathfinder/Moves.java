@@ -1,7 +1,8 @@
 package pathfinder;
 
 public class Moves implements Comparable<Moves>{
-    public int[] moves;
+    public int[] moves;     // only set on copies kept outside the population
+    public int index = -1;  // population slot the score belongs to
     public double fitness;
     public int totalCost;
     public boolean goalReached;
@@ -0,0 +1,25 @@
+package pathfinder;
+
+import maze.Maze;
+import java.util.Random;
+
+// Changes the genes of one bred chromosome in place. See GAConfig for the
+// built in ones.
+public interface Mutation {
+    // what the hive mind has learned about a move out of a cell, more is worse
+    interface Penalties {
+        double get(int r, int c, int move);
+    }
+
+    void mutate(Maze maze, Penalties penalties, PackedPopulation genes, int slot, Random rnd);
+
+    // each gene becomes a random move with the given odds
+    static Mutation random(double rate) {
+        return (maze, penalties, genes, slot, rnd) -> {
+            for (int i = 0; i < genes.length(); i++) {
+                if (rnd.nextDouble() < rate)
+                    genes.setGene(slot, i, rnd.nextInt(4));
+            }
+        };
+    }
+}
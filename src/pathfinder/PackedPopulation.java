@@ -0,0 +1,209 @@
+package pathfinder;
+
+import java.util.Arrays;
+
+// Chromosomes of one generation packed 2 bits per gene, 32 genes per long,
+// in a single array. Chromosome slots are filled in order with add() and
+// the whole store is emptied with clear() and refilled, so two stores can
+// take turns as the current and the next generation. Genes are moves:
+// 0 up, 1 down, 2 left, 3 right.
+//
+// Each slot can also hold a trace of its walk from the start: how many
+// leading genes are known to be moves onto open cells, whether the gene
+// after them is known to leave the maze or hit a wall, and the cell the
+// walk is on before every 32nd gene. Copies keep the trace as far as the
+// genes are the same and every other write cuts it short, so a bred child
+// knows its walk up to the first gene it did not inherit unchanged.
+//
+// A slot also remembers how many genes the fitness walk reads, up to the
+// gene that stops it at a wall, the edge or the goal, and failing that how
+// many leading genes are known not to stop it. Copies keep both and a write
+// to one of those genes cuts them, so the fitness cache can look up a child
+// without walking it first.
+public class PackedPopulation {
+    private static final int GENES_PER_WORD = 32;
+
+    private final int length;    // genes per chromosome
+    private final int words;     // longs per chromosome
+    private final long[] genes;
+    private final int capacity;
+    private int size = 0;
+
+    private final int[] traced;          // leading genes known to walk onto open cells
+    private final boolean[] traceEnds;   // the gene after them is known to stop the walk
+    private final int[] traceCells;      // cell before gene 32 * k, for 32 * k < traced
+    private final int[] walked;          // genes the fitness walk reads, 0 when not known
+    private final int[] openGenes;       // leading genes known not to stop the fitness walk
+
+    public PackedPopulation(int capacity, int length) {
+        this.capacity = capacity;
+        this.length = length;
+        this.words = (length + GENES_PER_WORD - 1) / GENES_PER_WORD;
+        this.genes = new long[capacity * words];
+        this.traced = new int[capacity];
+        this.traceEnds = new boolean[capacity];
+        this.traceCells = new int[capacity * words];
+        this.walked = new int[capacity];
+        this.openGenes = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // a new all zero slot at the end
+    public int add() {
+        if (size == capacity)
+            throw new IllegalStateException("population is full at " + capacity);
+        Arrays.fill(genes, size * words, (size + 1) * words, 0L);
+        traced[size] = 0;
+        traceEnds[size] = false;
+        walked[size] = 0;
+        openGenes[size] = 0;
+        return size++;
+    }
+
+    public void removeLast() {
+        size--;
+    }
+
+    public int gene(int slot, int i) {
+        long word = genes[slot * words + (i >>> 5)];
+        return (int) (word >>> ((i & 31) << 1)) & 3;
+    }
+
+    public void setGene(int slot, int i, int move) {
+        int at = slot * words + (i >>> 5);
+        int shift = (i & 31) << 1;
+        long word = (genes[at] & ~(3L << shift)) | ((long) move << shift);
+        if (word == genes[at])
+            return;
+        genes[at] = word;
+        cutTrace(slot, i);
+    }
+
+    public void copy(int slot, PackedPopulation from, int fromSlot) {
+        System.arraycopy(from.genes, fromSlot * words, genes, slot * words, words);
+        System.arraycopy(from.traceCells, fromSlot * words, traceCells, slot * words, words);
+        traced[slot] = from.traced[fromSlot];
+        traceEnds[slot] = from.traceEnds[fromSlot];
+        walked[slot] = from.walked[fromSlot];
+        openGenes[slot] = from.openGenes[fromSlot];
+    }
+
+    // genes [start, end) of the other chromosome, whole words at a time in the middle
+    public void copyRange(int slot, PackedPopulation from, int fromSlot, int start, int end) {
+        int differs = firstDifference(slot, from, fromSlot, start, end);
+        if (differs >= end)
+            return;
+        cutTrace(slot, differs);
+        int i = differs;
+        while (i < end && (i & 31) != 0) {
+            setGene(slot, i, from.gene(fromSlot, i));
+            i++;
+        }
+        int base = slot * words;
+        int fromBase = fromSlot * words;
+        while (i + GENES_PER_WORD <= end) {
+            genes[base + (i >>> 5)] = from.genes[fromBase + (i >>> 5)];
+            i += GENES_PER_WORD;
+        }
+        while (i < end) {
+            setGene(slot, i, from.gene(fromSlot, i));
+            i++;
+        }
+    }
+
+    // first gene in [start, end) where the chromosomes differ, end if none;
+    // genes that get the same move again keep the walk known
+    private int firstDifference(int slot, PackedPopulation from, int fromSlot, int start, int end) {
+        for (int i = start; i < end; ) {
+            int word = i >>> 5;
+            long diff = genes[slot * words + word] ^ from.genes[fromSlot * words + word];
+            diff &= -1L << ((i & 31) << 1);
+            if (diff != 0) {
+                int gene = (word << 5) + (Long.numberOfTrailingZeros(diff) >>> 1);
+                return Math.min(gene, end);
+            }
+            i = (word + 1) << 5;
+        }
+        return end;
+    }
+
+    // the first genes of the chromosome into words, bits past them cleared;
+    // returns the number of words used
+    public int copyPrefix(int slot, int genes, long[] into) {
+        int count = (genes + GENES_PER_WORD - 1) / GENES_PER_WORD;
+        System.arraycopy(this.genes, slot * words, into, 0, count);
+        int tail = genes & 31;
+        if (tail != 0)
+            into[count - 1] &= (1L << (tail << 1)) - 1;
+        return count;
+    }
+
+    // walk trace, see the top of the class
+
+    public int traced(int slot) {
+        return traced[slot];
+    }
+
+    public boolean traceEnds(int slot) {
+        return traceEnds[slot];
+    }
+
+    // cell index before gene 32 * word, for 32 * word < traced(slot)
+    public int tracedCell(int slot, int word) {
+        return traceCells[slot * words + word];
+    }
+
+    // the walk is on cell before gene 32 * word; record before setTrace
+    public void traceCell(int slot, int word, int cell) {
+        traceCells[slot * words + word] = cell;
+    }
+
+    public void setTrace(int slot, int genes, boolean ends) {
+        traced[slot] = genes;
+        traceEnds[slot] = ends;
+    }
+
+    public int walked(int slot) {
+        return walked[slot];
+    }
+
+    public int openPrefix(int slot) {
+        return openGenes[slot];
+    }
+
+    // the last of the genes stops the walk, or they are the whole chromosome
+    public void setWalked(int slot, int genes) {
+        walked[slot] = genes;
+        openGenes[slot] = genes - 1;
+    }
+
+    // the walk is only known up to a changed gene
+    private void cutTrace(int slot, int gene) {
+        if (traced[slot] >= gene) {
+            traced[slot] = gene;
+            traceEnds[slot] = false;
+        }
+        if (walked[slot] > gene)
+            walked[slot] = 0;
+        openGenes[slot] = Math.min(openGenes[slot], gene);
+    }
+
+    public int[] toArray(int slot) {
+        int[] chromosome = new int[length];
+        for (int i = 0; i < length; i++) {
+            chromosome[i] = gene(slot, i);
+        }
+        return chromosome;
+    }
+}
@@ -0,0 +1,80 @@
+package pathfinder;
+
+import maze.Maze;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+// Engines by short name, for command line tools.
+public class Pathfinders {
+    private static final Map<String, Function<Maze, AnimatablePathfinder>> ENGINES = new LinkedHashMap<>();
+
+    static {
+        ENGINES.put("dijkstra", DijkstraAnimatorWrapper::new);
+        ENGINES.put("dijkstra-bucket", BucketDijkstraAnimatorWrapper::new);
+        ENGINES.put("bidijkstra", BidirectionalDijkstraAnimatorWrapper::new);
+        ENGINES.put("astar", AStarAnimatorWrapper::new);
+        ENGINES.put("astar-alt", maze -> new AStarAnimatorWrapper(maze,
+                new LandmarkHeuristic(maze, landmarks(maze)), "A* (Landmarks)"));
+        ENGINES.put("astar-rect", RectangleAStarAnimatorWrapper::new);
+        ENGINES.put("lpa", LpaStarAnimatorWrapper::new);
+        ENGINES.put("hpa", maze -> new HierarchicalAnimatorWrapper(clusterGraph(maze, false)));
+        ENGINES.put("hpa-exact", maze -> new HierarchicalAnimatorWrapper(clusterGraph(maze, true)));
+        ENGINES.put("greedy", GreedyAnimatorWrapper::new);
+        ENGINES.put("ga", maze -> new GeneticAlgorithmVisualizer(maze, System.nanoTime(),
+                Runtime.getRuntime().availableProcessors()));
+        ENGINES.put("ga-islands", maze -> new IslandGeneticAlgorithm(maze, System.nanoTime(), new GAConfig()));
+    }
+
+    // Precomputed tables of the last maze asked about, so solving it again
+    // (every reset in the animator, every run in a batch) reuses them. Only
+    // one maze is kept, the next one frees them. An edit to the maze makes
+    // them stale and they are computed again.
+    private static Maze tablesMaze;
+    private static int tablesEdits;
+    private static LandmarkTable landmarks;
+    private static final ClusterGraph[] clusterGraphs = new ClusterGraph[2];   // by exact
+
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(ENGINES.keySet());
+    }
+
+    public static AnimatablePathfinder create(String name, Maze maze) {
+        Function<Maze, AnimatablePathfinder> factory = ENGINES.get(name);
+        if (factory == null)
+            throw new IllegalArgumentException("Unknown algorithm '" + name + "', expected one of " + names());
+        return factory.apply(maze);
+    }
+
+    public static synchronized LandmarkTable landmarks(Maze maze) {
+        useTablesOf(maze);
+        if (landmarks == null)
+            landmarks = LandmarkTable.compute(maze, LandmarkTable.DEFAULT_LANDMARKS);
+        return landmarks;
+    }
+
+    // the table saved next to the map is loaded instead when it matches
+    public static synchronized LandmarkTable landmarks(Maze maze, Path map) {
+        useTablesOf(maze);
+        if (landmarks == null)
+            landmarks = LandmarkTable.loadOrCompute(map, maze);
+        return landmarks;
+    }
+
+    public static synchronized ClusterGraph clusterGraph(Maze maze, boolean exact) {
+        useTablesOf(maze);
+        int i = exact ? 1 : 0;
+        if (clusterGraphs[i] == null)
+            clusterGraphs[i] = new ClusterGraph(maze, ClusterGraph.DEFAULT_CLUSTER_SIZE, exact);
+        return clusterGraphs[i];
+    }
+
+    private static void useTablesOf(Maze maze) {
+        if (maze == tablesMaze && maze.editCount() == tablesEdits)
+            return;
+        tablesMaze = maze;
+        tablesEdits = maze.editCount();
+        landmarks = null;
+        Arrays.fill(clusterGraphs, null);
+    }
+}
@@ -0,0 +1,70 @@
+package pathfinder;
+
+import java.util.Arrays;
+
+// Penalties recorded by one scoring worker during a generation.
+// Workers only read the shared dead end memory while scoring, their own
+// writes are kept here and merged back in population order afterwards.
+class PenaltyDelta {
+    private int[] rows = new int[16];
+    private int[] cols = new int[16];
+    private int[] moves = new int[16];
+    private double[] values = new double[16];
+    private int size = 0;
+
+    // empties the log for the next generation, keeping its arrays
+    public void clear() {
+        size = 0;
+    }
+
+    public int mark() {
+        return size;
+    }
+
+    public void add(int r, int c, int move, double value) {
+        if (size == rows.length) {
+            int capacity = size * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            moves = Arrays.copyOf(moves, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        rows[size] = r;
+        cols[size] = c;
+        moves[size] = move;
+        values[size] = value;
+        size++;
+    }
+
+    int row(int i) {
+        return rows[i];
+    }
+
+    int col(int i) {
+        return cols[i];
+    }
+
+    int move(int i) {
+        return moves[i];
+    }
+
+    double value(int i) {
+        return values[i];
+    }
+
+    // sum of the penalties added for (r, c, move) since the given mark
+    public double pending(int from, int r, int c, int move) {
+        double sum = 0.0;
+        for (int i = from; i < size; i++) {
+            if (rows[i] == r && cols[i] == c && moves[i] == move)
+                sum += values[i];
+        }
+        return sum;
+    }
+
+    public void mergeInto(PenaltyGrid memory) {
+        for (int i = 0; i < size; i++) {
+            memory.add(rows[i], cols[i], moves[i], values[i]);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package pathfinder;
+
+import java.awt.Point;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The GA's dead end memory: one penalty per cell and move in a flat array at
+// (r * cols + c) * 4 + move. Reads and adds are atomic, so any number of
+// threads may read and add at the same time. Cells that ever got a penalty
+// are listed once, so clear() only resets those and cells() shows them to
+// the display. clear() must not run alongside other calls.
+//
+// A cell's slot in the list is taken before it is written, so the list,
+// through cells(), absorb() or clear(), may only be read once every thread
+// adding has joined. The GA adds and reads it between generations on the
+// stepping thread; an assert catches a read while an add is under way.
+class PenaltyGrid implements Mutation.Penalties {
+    private static final VarHandle PENALTY = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle LISTED = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int rows, cols;
+    private final double[] penalties;
+    private final int[] listed;        // 1 once the cell is in touched
+    private final int[] touched;       // cells with a penalty, in the order they got one
+    private final AtomicInteger touchedCount = new AtomicInteger();
+    private final AtomicInteger appending = new AtomicInteger();   // adds that may be listing a cell
+    private final Set<Point> cells = new TouchedCells();
+
+    PenaltyGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.penalties = new double[rows * cols * 4];
+        this.listed = new int[rows * cols];
+        this.touched = new int[rows * cols];
+    }
+
+    @Override
+    public double get(int r, int c, int move) {
+        return (double) PENALTY.getAcquire(penalties, (r * cols + c) * 4 + move);
+    }
+
+    void add(int r, int c, int move, double value) {
+        int cell = r * cols + c;
+        list(cell);
+        PENALTY.getAndAdd(penalties, cell * 4 + move, value);
+    }
+
+    // keeps the larger penalty of every move either grid knows
+    void absorb(PenaltyGrid other) {
+        int count = other.listedCount();
+        for (int i = 0; i < count; i++) {
+            int cell = other.touched[i];
+            list(cell);
+            for (int move = 0; move < 4; move++) {
+                double value = (double) PENALTY.getAcquire(other.penalties, cell * 4 + move);
+                double current = (double) PENALTY.getAcquire(penalties, cell * 4 + move);
+                while (value > current && !PENALTY.compareAndSet(penalties, cell * 4 + move, current, value)) {
+                    current = (double) PENALTY.getAcquire(penalties, cell * 4 + move);
+                }
+            }
+        }
+    }
+
+    private void list(int cell) {
+        if ((int) LISTED.getAcquire(listed, cell) != 0)
+            return;
+        appending.incrementAndGet();
+        if (LISTED.compareAndSet(listed, cell, 0, 1))
+            touched[touchedCount.getAndIncrement()] = cell;
+        appending.decrementAndGet();
+    }
+
+    // cells listed in touched, all written: any slot taken before the count
+    // was read belongs to an add still counted in appending
+    private int listedCount() {
+        int count = touchedCount.get();
+        assert appending.get() == 0 : "penalty cells read while a penalty is being added";
+        return count;
+    }
+
+    // resets only the cells that have a penalty
+    void clear() {
+        int count = listedCount();
+        for (int i = 0; i < count; i++) {
+            int cell = touched[i];
+            for (int move = 0; move < 4; move++) {
+                penalties[cell * 4 + move] = 0.0;
+            }
+            listed[cell] = 0;
+        }
+        touchedCount.set(0);
+    }
+
+    // live view of the cells with a penalty, as (row, col) points
+    Set<Point> cells() {
+        return cells;
+    }
+
+    private class TouchedCells extends AbstractSet<Point> {
+        @Override
+        public int size() {
+            return listedCount();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Point))
+                return false;
+            Point p = (Point) o;
+            return p.x >= 0 && p.x < rows && p.y >= 0 && p.y < cols
+                    && (int) LISTED.getAcquire(listed, p.x * cols + p.y) != 0;
+        }
+
+        @Override
+        public Iterator<Point> iterator() {
+            int count = listedCount();
+            return new Iterator<Point>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public Point next() {
+                    if (next >= count)
+                        throw new NoSuchElementException();
+                    int cell = touched[next++];
+                    return new Point(cell / cols, cell % cols);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+
+// A* with rectangular symmetry reduction on the 4-connected grid.
+//
+// Inside a rectangle of equal cost every shortest crossing can be redrawn
+// along the rectangle's edges plus one straight jump from a side to the
+// opposite side, at the same cost. So interior cells are never expanded:
+// an edge cell reaches its edge neighbours as usual and jumps straight
+// across its rectangle to the opposite side for cost * distance. The result
+// is as optimal as plain A* with far fewer expansions on open regions.
+public class RectangleAStarAnimatorWrapper implements AnimatablePathfinder {
+    private final Maze maze;
+    private final UniformRegions regions;
+    private final IndexedMinHeap pq;
+    private final int[] path;      // best known cost by cell index
+    private final int[] from;      // previous expanded cell, -1 for none
+    private final Set<Point> closedSet;
+    private final ChangeFeed changes = new ChangeFeed();
+    private final int cols;
+    private final Point goal;
+    private boolean finished = false;
+    private List<Point> finalPath = Collections.emptyList();
+    private int totalCost = -1;
+    private int expanded = 0;
+
+    // {up,down,left,right}
+    private final int[] dRow = { -1, 1, 0, 0 };
+    private final int[] dCol = { 0, 0, -1, 1 };
+    private final int[] bits = { 8, 4, 2, 1 };
+
+    public RectangleAStarAnimatorWrapper(Maze maze) {
+        this(maze, new UniformRegions(maze));
+    }
+
+    // regions can be shared by every search on the same maze
+    public RectangleAStarAnimatorWrapper(Maze maze, UniformRegions regions) {
+        this.maze = maze;
+        this.regions = regions;
+        this.cols = maze.width();
+        this.path = new int[maze.cellCount()];
+        this.from = new int[maze.cellCount()];
+        this.closedSet = new HashSet<>();
+        this.goal = maze.getGoal();
+
+        Arrays.fill(path, Integer.MAX_VALUE);
+
+        this.pq = new IndexedMinHeap(maze.cellCount());
+        int start = maze.startIndex();
+        path[start] = 0;
+        from[start] = -1;
+        pq.insertOrDecrease(start, heuristic(maze.row(start), maze.col(start)));
+        changes.opened(start);
+    }
+
+    private int heuristic(int r, int c) {
+        return Math.abs(r - goal.x) + Math.abs(c - goal.y);
+    }
+
+    @Override
+    public String getName() {
+        return "A* (Rectangle Pruning)";
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public int getTotalCost() {
+        return totalCost;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public List<Point> getPath() {
+        return finished ? finalPath : Collections.emptyList();
+    }
+
+    @Override
+    public Set<Point> getOpenSet() {
+        Set<Point> openSet = new HashSet<>();
+        pq.forEach(cell -> openSet.add(new Point(maze.row(cell), maze.col(cell))));
+        return openSet;
+    }
+
+    @Override
+    public Set<Point> getClosedSet() {
+        return closedSet;
+    }
+
+    @Override
+    public ChangeFeed changeFeed() {
+        return changes;
+    }
+
+    @Override
+    public void nextStep() {
+        if (finished || pq.isEmpty()) {
+            finished = true;
+            return;
+        }
+
+        int current = pq.poll();
+        int r = maze.row(current);
+        int c = maze.col(current);
+
+        if (current == maze.goalIndex()) {
+            finished = true;
+            totalCost = path[current];
+            buildPath(current);
+            return;
+        }
+
+        closedSet.add(new Point(r, c));
+        changes.closed(current);
+        expanded++;
+
+        // neighbours, skipping the inside of their rectangle
+        int available = maze.directions(current);
+        for (int i = 0; i < 4; i++) {
+            if ((available & bits[i]) != 0) {
+                int next = (r + dRow[i]) * cols + (c + dCol[i]);
+                if (!regions.isInterior(next))
+                    relax(current, next, maze.cost(next));
+            }
+        }
+
+        // jumps across the rectangle from the side current lies on
+        int region = regions.regionOf(current);
+        int top = regions.top(region), bottom = regions.bottom(region);
+        int left = regions.left(region), right = regions.right(region);
+        int cost = maze.cost(current);
+
+        if (bottom - top > 1) {
+            if (r == top)
+                relax(current, bottom * cols + c, cost * (bottom - top));
+            if (r == bottom)
+                relax(current, top * cols + c, cost * (bottom - top));
+        }
+        if (right - left > 1) {
+            if (c == left)
+                relax(current, r * cols + right, cost * (right - left));
+            if (c == right)
+                relax(current, r * cols + left, cost * (right - left));
+        }
+    }
+
+    private void relax(int current, int next, int stepCost) {
+        int newpTimes = path[current] + stepCost;
+
+        if (newpTimes < path[next]) {
+            if (path[next] == Integer.MAX_VALUE)
+                changes.opened(next);
+            path[next] = newpTimes;
+            from[next] = current;
+            pq.insertOrDecrease(next, newpTimes + heuristic(maze.row(next), maze.col(next)));
+        }
+    }
+
+    // fills in the cells each jump passed over
+    private void buildPath(int end) {
+        finalPath = new ArrayList<>();
+        for (int trace = end; trace >= 0; trace = from[trace]) {
+            int r = maze.row(trace);
+            int c = maze.col(trace);
+            finalPath.add(new Point(r, c));
+            changes.pathed(trace);
+
+            int prev = from[trace];
+            if (prev < 0)
+                break;
+            int stepR = Integer.signum(maze.row(prev) - r);
+            int stepC = Integer.signum(maze.col(prev) - c);
+            for (int pr = r + stepR, pc = c + stepC; pr != maze.row(prev) || pc != maze.col(prev); pr += stepR, pc += stepC) {
+                finalPath.add(new Point(pr, pc));
+                changes.pathed(maze.index(pr, pc));
+            }
+        }
+        Collections.reverse(finalPath);
+    }
+}
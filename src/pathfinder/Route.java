@@ -0,0 +1,46 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.*;
+
+// Answer to one RouteService query.
+public class Route {
+    private final int[] cells;   // cell indices from start to goal, empty when unreachable
+    private final int cost;      // -1 when unreachable
+    private final int expanded;
+
+    Route(int[] cells, int cost, int expanded) {
+        this.cells = cells;
+        this.cost = cost;
+        this.expanded = expanded;
+    }
+
+    public boolean found() {
+        return cost >= 0;
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public int expanded() {
+        return expanded;
+    }
+
+    public int length() {
+        return cells.length;
+    }
+
+    public int cellAt(int i) {
+        return cells[i];
+    }
+
+    public List<Point> toPoints(Maze maze) {
+        List<Point> points = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            points.add(new Point(maze.row(cell), maze.col(cell)));
+        }
+        return points;
+    }
+}
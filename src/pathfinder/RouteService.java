@@ -0,0 +1,154 @@
+package pathfinder;
+
+import maze.Maze;
+import java.awt.Point;
+import java.util.Arrays;
+
+// Answers many (start, goal) queries on one loaded maze, from any number of
+// threads at once.
+//
+// The maze, its direction masks and the heuristic's tables are shared and
+// only read. A query borrows search arrays for the whole maze from the
+// service's ScratchPool and gives them back after, so there are only as
+// many as queries ran at once, at most one per processor stays between
+// queries, and all of them go away with the service. A cell's cost and
+// parent only count when its stamp matches the current query, so nothing is
+// cleared between queries.
+//
+// Moving onto a cell costs that cell's value, and the costs the maze gives
+// its own start and goal apply to any query passing over them.
+public class RouteService {
+    private final Maze maze;
+    private final Heuristic heuristic;
+    private final int cols;
+    private final ScratchPool<Scratch> scratch;
+
+    // {up,down,left,right}
+    private static final int[] D_ROW = { -1, 1, 0, 0 };
+    private static final int[] D_COL = { 0, 0, -1, 1 };
+    private static final int[] BITS = { 8, 4, 2, 1 };
+
+    public RouteService(Maze maze) {
+        this(maze, new ManhattanHeuristic(maze));
+    }
+
+    public RouteService(Maze maze, Heuristic heuristic) {
+        this.maze = maze;
+        this.heuristic = heuristic;
+        this.cols = maze.width();
+        this.scratch = new ScratchPool<>(() -> new Scratch(maze.cellCount()),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public Maze maze() {
+        return maze;
+    }
+
+    public Route route(Point start, Point goal) {
+        return route(cell(start), cell(goal));
+    }
+
+    public Route route(int start, int goal) {
+        check(start);
+        check(goal);
+        Scratch s = scratch.take();
+        try {
+            return route(start, goal, s);
+        } finally {
+            scratch.give(s);
+        }
+    }
+
+    private Route route(int start, int goal, Scratch s) {
+        s.nextQuery();
+
+        s.reach(start, 0, -1);
+        s.pq.insertOrDecrease(start, heuristic.estimate(start, goal));
+
+        int expanded = 0;
+        while (!s.pq.isEmpty()) {
+            int current = s.pq.poll();
+            if (current == goal)
+                return s.route(goal, expanded);
+            expanded++;
+
+            int r = current / cols;
+            int c = current % cols;
+            int available = maze.directions(current);
+            for (int i = 0; i < 4; i++) {
+                if ((available & BITS[i]) == 0)
+                    continue;
+
+                int next = (r + D_ROW[i]) * cols + (c + D_COL[i]);
+                int newCost = s.path[current] + maze.cost(next);
+
+                // a closed cell found again through a cheaper path is queued again
+                if (newCost < s.cost(next)) {
+                    s.reach(next, newCost, current);
+                    s.pq.insertOrDecrease(next, newCost + heuristic.estimate(next, goal));
+                }
+            }
+        }
+        return new Route(new int[0], -1, expanded);
+    }
+
+    private int cell(Point p) {
+        if (p.x < 0 || p.x >= maze.height() || p.y < 0 || p.y >= cols)
+            throw new IllegalArgumentException("Cell (" + p.x + ", " + p.y + ") is outside the maze");
+        return p.x * cols + p.y;
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= maze.cellCount())
+            throw new IllegalArgumentException("Cell " + index + " is outside the maze");
+        if (maze.isWall(index))
+            throw new IllegalArgumentException("Cell (" + maze.row(index) + ", " + maze.col(index) + ") is a wall");
+    }
+
+    // search arrays of one query at a time
+    private static class Scratch {
+        final int[] path;      // best known cost by cell index, valid when stamped
+        final int[] from;      // previous cell on that path
+        final int[] stamp;     // query that last wrote path and from
+        final IndexedMinHeap pq;
+        int query = 0;
+
+        Scratch(int cells) {
+            path = new int[cells];
+            from = new int[cells];
+            stamp = new int[cells];
+            pq = new IndexedMinHeap(cells);
+        }
+
+        void nextQuery() {
+            pq.clear();
+            if (++query == 0) {
+                // stamps wrapped around, start over
+                Arrays.fill(stamp, 0);
+                query = 1;
+            }
+        }
+
+        int cost(int cell) {
+            return stamp[cell] == query ? path[cell] : Integer.MAX_VALUE;
+        }
+
+        void reach(int cell, int cost, int previous) {
+            stamp[cell] = query;
+            path[cell] = cost;
+            from[cell] = previous;
+        }
+
+        Route route(int goal, int expanded) {
+            int length = 0;
+            for (int trace = goal; trace >= 0; trace = from[trace]) {
+                length++;
+            }
+            int[] cells = new int[length];
+            for (int trace = goal; trace >= 0; trace = from[trace]) {
+                cells[--length] = trace;
+            }
+            return new Route(cells, path[goal], expanded);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package pathfinder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+// The pools GAs score and step on, one per parallelism, shared by every GA
+// that asks for it. A GA is dropped without being closed wherever a run
+// ends, so a pool of its own would keep its workers around after every
+// reset or batch map. Workers are daemon threads and exit when idle.
+final class ScoringPools {
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private ScoringPools() {
+    }
+
+    static ForkJoinPool get(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+}
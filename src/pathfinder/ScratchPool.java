@@ -0,0 +1,33 @@
+package pathfinder;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+// Scratch buffers lent to whichever thread needs one and given back after.
+// There are only ever as many as were in use at once, at most maxIdle stay
+// around between uses, and they go away with the pool's owner. A
+// ThreadLocal would instead leave one on every thread that ever used it,
+// for as long as the thread lives.
+final class ScratchPool<T> {
+    private final Supplier<T> factory;
+    private final int maxIdle;
+    private final ArrayDeque<T> idle = new ArrayDeque<>();     // guarded by this
+
+    ScratchPool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    T take() {
+        T scratch;
+        synchronized (this) {
+            scratch = idle.pollFirst();
+        }
+        return scratch != null ? scratch : factory.get();
+    }
+
+    synchronized void give(T scratch) {
+        if (idle.size() < maxIdle)
+            idle.addFirst(scratch);
+    }
+}
@@ -0,0 +1,459 @@
+package pathfinder;
+
+import maze.Maze;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A recorded search run: the cells each step changed, with the time the
+// step took, its cost and expanded count. A Recorder writes one while the
+// solver runs; load reads it back and a Cursor seeks to any step without
+// running the solver again. Cell states are those of CellStates.
+//
+// Files are little endian, varints unsigned LEB128, signed values zigzag:
+//   int magic "MTRC", int version, int rows, int cols,
+//   long fingerprint of costs and walls (see LandmarkTable),
+//   then one record per step, the first for the state before any step:
+//     varint microseconds the step took
+//     varint total cost change, varint expanded change, both zigzag
+//     varint changed cells << 2 | name changed << 1 | finished
+//     when the name changed: varint length, UTF-8 name
+//     per changed cell by index: varint (index - previous index) << 2 | state
+// A recording cut short still loads up to its last whole record.
+public class SearchTrace {
+    public static final String EXTENSION = ".mtrace";
+
+    private static final int MAGIC = 0x43_52_54_4D; // "MTRC" read little endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int MAX_KEYFRAMES = 64;
+    private static final int MAX_KEYFRAME_BYTES = 32 << 20;
+
+    private final byte[] data;
+    private final int cells;
+    private final int records;
+    private final int[] changesAt;      // offset of the changed cells by record
+    private final int[] changeCount;
+    private final long[] micros;        // time taken up to and including the record
+    private final int[] totalCost;
+    private final int[] expanded;
+    private final boolean[] finished;
+    private final int[] nameFrom;       // record where each name starts
+    private final String[] names;
+
+    // Every cell's state after record (k + 1) * interval, packed four cells
+    // to a byte, so a seek replays at most interval records; the states
+    // before the first record are all NONE and need none. As many as fit in
+    // MAX_KEYFRAME_BYTES, a maze too big for even one replays from the start.
+    private final int interval;
+    private final byte[][] keyframes;
+    private final int[] keyOpen, keyClosed;
+
+    private SearchTrace(byte[] data, int cells, int records, int[] changesAt, int[] changeCount, long[] micros,
+            int[] totalCost, int[] expanded, boolean[] finished, int[] nameFrom, String[] names) {
+        this.data = data;
+        this.cells = cells;
+        this.records = records;
+        this.changesAt = changesAt;
+        this.changeCount = changeCount;
+        this.micros = micros;
+        this.totalCost = totalCost;
+        this.expanded = expanded;
+        this.finished = finished;
+        this.nameFrom = nameFrom;
+        this.names = names;
+
+        int fit = (int) Math.min(MAX_KEYFRAMES, MAX_KEYFRAME_BYTES / packedSize(cells));
+        interval = Math.max(1, (records + fit) / (fit + 1));
+        int count = (records - 1) / interval;
+        keyframes = new byte[count][];
+        keyOpen = new int[count];
+        keyClosed = new int[count];
+        Cursor cursor = new Cursor();
+        for (int k = 0; k < count; k++) {
+            while (cursor.step < (k + 1) * interval) {
+                cursor.apply(++cursor.step);
+            }
+            keyframes[k] = cursor.pack();
+            keyOpen[k] = cursor.openCount;
+            keyClosed[k] = cursor.closedCount;
+        }
+    }
+
+    private static long packedSize(int cells) {
+        return (cells + 3) / 4;
+    }
+
+    public static Path traceFile(Path dir, String map, String algorithm) {
+        return dir.resolve(map + "-" + algorithm.replaceAll("[^A-Za-z0-9._=-]+", "_") + EXTENSION);
+    }
+
+    // steps recorded, a cursor seeks to 0 .. steps()
+    public int steps() {
+        return records - 1;
+    }
+
+    public String name(int step) {
+        int i = Arrays.binarySearch(nameFrom, step);
+        return names[i >= 0 ? i : -i - 2];
+    }
+
+    public int totalCost(int step) {
+        return totalCost[step];
+    }
+
+    public int expanded(int step) {
+        return expanded[step];
+    }
+
+    public boolean isFinished(int step) {
+        return finished[step];
+    }
+
+    // solver time spent up to the step, recording left out
+    public long micros(int step) {
+        return micros[step];
+    }
+
+    public static SearchTrace load(Path file, Maze maze) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < HEADER_SIZE)
+            throw new IOException("too short for a search trace");
+        ByteBuffer head = ByteBuffer.wrap(data, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (head.getInt(0) != MAGIC)
+            throw new IOException("not a search trace");
+        if (head.getInt(4) != VERSION)
+            throw new IOException("unsupported search trace version " + head.getInt(4));
+        if (head.getInt(8) != maze.height() || head.getInt(12) != maze.width()
+                || head.getLong(16) != LandmarkTable.fingerprint(maze))
+            throw new IOException("recorded on a different maze");
+
+        int capacity = 1024;
+        int[] changesAt = new int[capacity], changeCount = new int[capacity];
+        long[] micros = new long[capacity];
+        int[] totalCost = new int[capacity], expanded = new int[capacity];
+        boolean[] finished = new boolean[capacity];
+        List<Integer> nameFrom = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        Reader in = new Reader(data, HEADER_SIZE);
+        long time = 0;
+        int cost = 0, count = 0;
+        int records = 0;
+        while (in.position < data.length) {
+            long recordMicros, flags;
+            int recordCost, recordExpanded, at, changes;
+            String name = null;
+            try {
+                recordMicros = in.varint();
+                recordCost = cost + (int) zigzagDecode(in.varint());
+                recordExpanded = count + (int) zigzagDecode(in.varint());
+                flags = in.varint();
+                if ((flags & 2) != 0) {
+                    int length = (int) in.varint();
+                    in.require(length);
+                    name = new String(data, in.position, length, StandardCharsets.UTF_8);
+                    in.position += length;
+                }
+                at = in.position;
+                changes = (int) (flags >>> 2);
+                long index = 0;
+                for (int i = 0; i < changes; i++) {
+                    index += in.varint() >>> 2;
+                }
+                if (index >= maze.cellCount())
+                    throw new IOException("cell " + index + " is outside the maze");
+            } catch (IndexOutOfBoundsException e) {
+                break;      // cut short while writing this record
+            }
+            if (records == 0 && name == null)
+                throw new IOException("first record has no solver name");
+
+            if (records == capacity) {
+                capacity *= 2;
+                changesAt = Arrays.copyOf(changesAt, capacity);
+                changeCount = Arrays.copyOf(changeCount, capacity);
+                micros = Arrays.copyOf(micros, capacity);
+                totalCost = Arrays.copyOf(totalCost, capacity);
+                expanded = Arrays.copyOf(expanded, capacity);
+                finished = Arrays.copyOf(finished, capacity);
+            }
+            time += recordMicros;
+            cost = recordCost;
+            count = recordExpanded;
+            changesAt[records] = at;
+            changeCount[records] = changes;
+            micros[records] = time;
+            totalCost[records] = cost;
+            expanded[records] = count;
+            finished[records] = (flags & 1) != 0;
+            if (name != null) {
+                nameFrom.add(records);
+                names.add(name);
+            }
+            records++;
+        }
+        if (records == 0)
+            throw new IOException("search trace has no records");
+
+        return new SearchTrace(data, maze.cellCount(), records, changesAt, changeCount, micros, totalCost,
+                expanded, finished, nameFrom.stream().mapToInt(Integer::intValue).toArray(),
+                names.toArray(new String[0]));
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // every cell's state at one step of the trace, and the cells the last
+    // seek changed
+    public final class Cursor {
+        private final byte[] states = new byte[cells];
+        private int step = -1;          // last record applied
+        private int openCount = 0, closedCount = 0;
+
+        // cells changed by the last seek, stamp marks them by seek
+        private final int[] stamp = new int[cells];
+        private int round = 0;
+        private int[] changed = new int[64];
+        private int changedCount = 0;
+        private boolean reloaded = false;
+
+        private Cursor() {
+        }
+
+        // forward from where it is when that is close, else from a keyframe
+        // or back to the start
+        public void seek(int target) {
+            round++;
+            changedCount = 0;
+            reloaded = false;
+
+            target = Math.max(0, Math.min(target, records - 1));
+            if (target < step || target - step > interval) {
+                int k = Math.min(target / interval, keyframes.length);
+                if (k > 0) {
+                    unpack(keyframes[k - 1]);
+                    openCount = keyOpen[k - 1];
+                    closedCount = keyClosed[k - 1];
+                    step = k * interval;
+                    reloaded = true;
+                } else if (target < step) {
+                    Arrays.fill(states, CellStates.NONE);
+                    openCount = 0;
+                    closedCount = 0;
+                    step = -1;
+                    reloaded = true;
+                }
+            }
+            while (step < target) {
+                apply(++step);
+            }
+        }
+
+        private byte[] pack() {
+            byte[] packed = new byte[(int) packedSize(cells)];
+            for (int index = 0; index < cells; index++) {
+                packed[index >>> 2] |= states[index] << ((index & 3) << 1);
+            }
+            return packed;
+        }
+
+        private void unpack(byte[] packed) {
+            for (int index = 0; index < cells; index++) {
+                states[index] = (byte) (packed[index >>> 2] >>> ((index & 3) << 1) & 3);
+            }
+        }
+
+        private void apply(int record) {
+            Reader in = new Reader(data, changesAt[record]);
+            int index = 0;
+            for (int i = 0; i < changeCount[record]; i++) {
+                long change = in.varint();
+                index += (int) (change >>> 2);
+                set(index, (byte) (change & 3));
+            }
+        }
+
+        private void set(int index, byte state) {
+            byte old = states[index];
+            if (old == CellStates.OPEN)
+                openCount--;
+            else if (old == CellStates.CLOSED)
+                closedCount--;
+            if (state == CellStates.OPEN)
+                openCount++;
+            else if (state == CellStates.CLOSED)
+                closedCount++;
+            states[index] = state;
+
+            if (stamp[index] != round) {
+                stamp[index] = round;
+                if (changedCount == changed.length)
+                    changed = Arrays.copyOf(changed, changedCount * 2);
+                changed[changedCount++] = index;
+            }
+        }
+
+        public int step() {
+            return step;
+        }
+
+        // the last seek started over from a keyframe, so any cell may have
+        // changed and only the cells replayed after it are listed
+        public boolean reloaded() {
+            return reloaded;
+        }
+
+        public int changedCount() {
+            return changedCount;
+        }
+
+        public int changed(int i) {
+            return changed[i];
+        }
+
+        public int cellCount() {
+            return cells;
+        }
+
+        public byte state(int index) {
+            return states[index];
+        }
+
+        public int openCount() {
+            return openCount;
+        }
+
+        public int closedCount() {
+            return closedCount;
+        }
+    }
+
+    // Steps the solver and writes a record for each step. Only the changes
+    // are looked at, through CellStates, so recording costs about as much
+    // as reading the engine's change feed.
+    public static class Recorder implements Closeable {
+        private final AnimatablePathfinder solver;
+        private final CellStates states;
+        private final OutputStream out;
+        private final byte[] varint = new byte[10];
+        private int[] sorted = new int[64];
+        private String name = null;
+        private int totalCost = 0, expanded = 0;
+        private long nanos = 0, micros = 0;     // solver time so far, and as written
+
+        public Recorder(Maze maze, AnimatablePathfinder solver, Path file) throws IOException {
+            this.solver = solver;
+            this.states = new CellStates(maze, solver);
+            this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+
+            ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            head.putInt(MAGIC).putInt(VERSION).putInt(maze.height()).putInt(maze.width());
+            head.putLong(LandmarkTable.fingerprint(maze));
+            out.write(head.array());
+            record();
+        }
+
+        public void step() throws IOException {
+            long begin = System.nanoTime();
+            solver.nextStep();
+            nanos += System.nanoTime() - begin;
+            record();
+        }
+
+        private void record() throws IOException {
+            states.update();
+            int count = states.changedCount();
+            if (sorted.length < count)
+                sorted = new int[Math.max(count, sorted.length * 2)];
+            for (int i = 0; i < count; i++) {
+                sorted[i] = states.changed(i);
+            }
+            Arrays.sort(sorted, 0, count);
+
+            String newName = solver.getName();
+            boolean renamed = !newName.equals(name);
+            // steps shorter than a microsecond still add up
+            writeVarint(nanos / 1000 - micros);
+            micros = nanos / 1000;
+            writeVarint(zigzagEncode(solver.getTotalCost() - (long) totalCost));
+            writeVarint(zigzagEncode(solver.getExpandedCount() - (long) expanded));
+            writeVarint((long) count << 2 | (renamed ? 2 : 0) | (solver.isFinished() ? 1 : 0));
+            if (renamed) {
+                byte[] bytes = newName.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length);
+                out.write(bytes);
+            }
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                int index = sorted[i];
+                writeVarint((long) (index - previous) << 2 | states.state(index));
+                previous = index;
+            }
+
+            name = newName;
+            totalCost = solver.getTotalCost();
+            expanded = solver.getExpandedCount();
+        }
+
+        private void writeVarint(long value) throws IOException {
+            int length = 0;
+            while ((value & ~0x7FL) != 0) {
+                varint[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            varint[length++] = (byte) value;
+            out.write(varint, 0, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            states.close();
+            out.close();
+        }
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // reads varints, running off the end throws IndexOutOfBoundsException
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+
+        void require(int length) {
+            if (length < 0 || position + length > data.length)
+                throw new IndexOutOfBoundsException();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package pathfinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Picks the parents of the next generation from the scored population,
+// which comes sorted best first. See GAConfig for the built in ones.
+public interface Selection {
+    List<Moves> select(List<Moves> scored, int count, Random rnd);
+
+    // best of size random picks, repeated count times
+    static Selection tournament(int size) {
+        return (scored, count, rnd) -> {
+            List<Moves> selected = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Moves best = scored.get(rnd.nextInt(scored.size()));
+                for (int j = 1; j < size; j++) {
+                    Moves competitor = scored.get(rnd.nextInt(scored.size()));
+                    if (competitor.fitness > best.fitness)
+                        best = competitor;
+                }
+                selected.add(best);
+            }
+            return selected;
+        };
+    }
+
+    // linear ranking: the best is picked n times as often as the worst
+    static Selection rank() {
+        return (scored, count, rnd) -> {
+            int n = scored.size();
+            List<Moves> selected = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int rank = (int) (n * (1 - Math.sqrt(rnd.nextDouble())));
+                selected.add(scored.get(Math.min(n - 1, rank)));
+            }
+            return selected;
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package pathfinder;
+
+import maze.Maze;
+import java.util.Arrays;
+
+// Splits the open cells of a maze into rectangles of equal cost.
+// Start and goal get a rectangle of their own. Computed once per maze and
+// shared by every search on it, see RectangleAStarAnimatorWrapper.
+public class UniformRegions {
+    private final Maze maze;
+    private final int cols;
+    private final int[] regionOf;   // rectangle id by cell index, -1 for walls
+    private int[] top, left, bottom, right;
+    private int count = 0;
+
+    public UniformRegions(Maze maze) {
+        this.maze = maze;
+        this.cols = maze.width();
+        this.regionOf = new int[maze.cellCount()];
+        this.top = new int[64];
+        this.left = new int[64];
+        this.bottom = new int[64];
+        this.right = new int[64];
+
+        Arrays.fill(regionOf, -1);
+
+        for (int index = 0; index < maze.cellCount(); index++) {
+            if (regionOf[index] < 0 && !maze.isWall(index))
+                addLargestRectangle(maze.row(index), maze.col(index));
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int regionOf(int index) {
+        return regionOf[index];
+    }
+
+    public int top(int region) {
+        return top[region];
+    }
+
+    public int left(int region) {
+        return left[region];
+    }
+
+    public int bottom(int region) {
+        return bottom[region];
+    }
+
+    public int right(int region) {
+        return right[region];
+    }
+
+    // true for cells inside their rectangle with no edge of it next to them
+    public boolean isInterior(int index) {
+        int region = regionOf[index];
+        int r = index / cols;
+        int c = index % cols;
+        return r > top[region] && r < bottom[region] && c > left[region] && c < right[region];
+    }
+
+    // Grows a rectangle from its top left cell, once widest row first and
+    // once tallest column first, and keeps the bigger one.
+    private void addLargestRectangle(int r, int c) {
+        int width = 1;
+        while (canJoin(r, c + width, r, c))
+            width++;
+        int height = 1;
+        while (rowCanJoin(r + height, c, width, r, c))
+            height++;
+
+        int tallHeight = 1;
+        while (canJoin(r + tallHeight, c, r, c))
+            tallHeight++;
+        int tallWidth = 1;
+        while (columnCanJoin(c + tallWidth, r, tallHeight, r, c))
+            tallWidth++;
+
+        if (tallHeight * tallWidth > width * height) {
+            width = tallWidth;
+            height = tallHeight;
+        }
+
+        if (count == top.length) {
+            top = Arrays.copyOf(top, count * 2);
+            left = Arrays.copyOf(left, count * 2);
+            bottom = Arrays.copyOf(bottom, count * 2);
+            right = Arrays.copyOf(right, count * 2);
+        }
+        top[count] = r;
+        left[count] = c;
+        bottom[count] = r + height - 1;
+        right[count] = c + width - 1;
+
+        for (int dr = 0; dr < height; dr++) {
+            for (int dc = 0; dc < width; dc++) {
+                regionOf[(r + dr) * cols + (c + dc)] = count;
+            }
+        }
+        count++;
+    }
+
+    private boolean rowCanJoin(int r, int c, int width, int originR, int originC) {
+        for (int dc = 0; dc < width; dc++) {
+            if (!canJoin(r, c + dc, originR, originC))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean columnCanJoin(int c, int r, int height, int originR, int originC) {
+        for (int dr = 0; dr < height; dr++) {
+            if (!canJoin(r + dr, c, originR, originC))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean canJoin(int r, int c, int originR, int originC) {
+        if (r >= maze.height() || c >= cols)
+            return false;
+        int index = r * cols + c;
+        int origin = originR * cols + originC;
+        if (isEndpoint(index) || isEndpoint(origin))
+            return false;
+        return regionOf[index] < 0 && !maze.isWall(index) && maze.cost(index) == maze.cost(origin);
+    }
+
+    private boolean isEndpoint(int index) {
+        return index == maze.startIndex() || index == maze.goalIndex();
+    }
+}
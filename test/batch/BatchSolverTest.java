@@ -0,0 +1,57 @@
+package batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSolverTest {
+    @TempDir
+    Path dir;
+
+    private String run(Path map, boolean json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        new BatchSolver(Collections.singletonList("dijkstra"), json, Long.MAX_VALUE, out)
+                .run(Collections.singletonList(map));
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private Path awkwardMap() throws IOException {
+        Path map = dir.resolve("a,\"b\".txt");
+        Files.write(map, Arrays.asList("#####", "#S\"1\"G#", "#####"));
+        return map;
+    }
+
+    // a map path with a comma and quotes stays one quoted field
+    @Test
+    void quotesCsvFields() throws IOException {
+        Path map = awkwardMap();
+        String[] lines = run(map, false).split("\\R");
+        assertEquals(2, lines.length);
+        String quoted = "\"" + map.toString().replace("\"", "\"\"") + "\"";
+        assertTrue(lines[1].startsWith(quoted + ",dijkstra,3,5,true,1,2,"), lines[1]);
+    }
+
+    @Test
+    void escapesJsonStrings() throws IOException {
+        Path map = awkwardMap();
+        String line = run(map, true).trim();
+        String escaped = map.toString().replace("\\", "\\\\").replace("\"", "\\\"");
+        assertTrue(line.startsWith("{\"map\":\"" + escaped + "\",\"algorithm\":\"dijkstra\","), line);
+
+        assertEquals("ga[a\\\"b\\\\c\\n\\t\\u0001]", BatchSolver.jsonEscape("ga[a\"b\\c\n\t\u0001]"));
+        assertEquals("ga[population=10;mutation-rate=0.2]",
+                BatchSolver.csvField("ga[population=10;mutation-rate=0.2]"));
+        assertEquals("\"x\ny\"", BatchSolver.csvField("x\ny"));
+    }
+}
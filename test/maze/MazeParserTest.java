@@ -0,0 +1,132 @@
+package maze;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MazeParserTest {
+    private static final List<String> SMALL = Arrays.asList(
+            "#####",
+            "#S\"10\"\"7\"#",
+            "#\"1\"#\"65535\"#",
+            "#\"2\"\"3\"G#",
+            "#####");
+
+    @TempDir
+    Path dir;
+
+    // the shipped maps, maps.dir is set by the build
+    private static List<Path> maps() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("maps.dir", "src/map")))) {
+            return files.filter(f -> f.toString().endsWith(".txt")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void parsesCostsWallsStartAndGoal() throws IOException {
+        Maze maze = MazeParser.parse(SMALL);
+        assertEquals(5, maze.height());
+        assertEquals(5, maze.width());
+        assertEquals(maze.index(1, 1), maze.startIndex());
+        assertEquals(maze.index(3, 3), maze.goalIndex());
+        assertEquals(10, maze.cost(1, 2));
+        assertEquals(7, maze.cost(1, 3));
+        assertEquals(65535, maze.cost(2, 3));
+        assertTrue(maze.isWall(2, 2));
+        assertFalse(maze.isWall(3, 1));
+    }
+
+    // lines, a byte stream with CRLF endings and a mapped file give the same maze
+    @Test
+    void everyInputGivesTheSameMaze() throws IOException {
+        Maze lines = MazeParser.parse(SMALL);
+        assertSameMaze(lines, MazeParser.parse(channel(String.join("\r\n", SMALL) + "\r\n")), "channel");
+
+        Path file = dir.resolve("small.txt");
+        Files.write(file, SMALL);
+        assertSameMaze(lines, MazeParser.parse(file), "file");
+    }
+
+    // what follows the closing border row is left unread
+    @Test
+    void stopsAtTheClosingBorder() throws IOException {
+        String text = String.join("\n", SMALL) + "\nnot a maze row\n";
+        Maze maze = MazeParser.parseUntilClosingBorder(channel(text));
+        assertSameMaze(MazeParser.parse(SMALL), maze, "until closing border");
+    }
+
+    @Test
+    void rejectsBrokenMazes() {
+        assertError("line 3: row has 4 cells, expected 5", "#####", "#S\"1\"G#", "#\"1\"\"2\"#", "#####");
+        assertError("line 2: row has more than 3 cells", "###", "#SG#");
+        assertError("second start cell", "#####", "#SSG#", "#####");
+        assertError("second goal cell", "#####", "#SGG#", "#####");
+        assertError("no goal cell", "####", "#S\"1\"#", "####");
+        assertError("no start cell", "####", "#G\"1\"#", "####");
+        assertError("line 2: number cell is not closed", "####", "#SG\"1", "####");
+        assertError("line 2: empty number cell", "#####", "#S\"\"G#", "#####");
+        assertError("line 2: unexpected 'x' inside a number cell", "#####", "#S\"1x\"G#", "#####");
+        assertError("cell cost is larger than 65535", "#####", "#S\"65536\"G#", "#####");
+        assertError("no maze rows found", "", "");
+    }
+
+    // text maps written to the binary format and mapped back are unchanged,
+    // one byte per cost for the shipped maps and two once a cost is above 255
+    @Test
+    void binaryRoundTripKeepsTheMaze() throws IOException {
+        for (Path map : maps()) {
+            Maze parsed = MazeParser.parse(map);
+            Path binary = dir.resolve(map.getFileName() + MazeBinary.EXTENSION);
+            MazeBinary.write(parsed, binary);
+            assertTrue(MazeBinary.isBinary(binary), map.toString());
+            assertFalse(MazeBinary.isBinary(map), map.toString());
+            assertSameMaze(parsed, Maze.load(binary), map.toString());
+        }
+
+        Maze wide = MazeParser.parse(SMALL);
+        Path binary = dir.resolve("wide" + MazeBinary.EXTENSION);
+        MazeBinary.write(wide, binary);
+        Maze loaded = Maze.load(binary);
+        assertSameMaze(wide, loaded, "wide costs");
+
+        // a mapped maze is read only, an edit copies it to the heap first
+        loaded.setCost(loaded.index(1, 2), 4);
+        assertEquals(4, loaded.cost(1, 2));
+        assertEquals(10, MazeBinary.map(binary).cost(1, 2));
+    }
+
+    private static void assertError(String message, String... lines) {
+        IOException error = assertThrows(IOException.class, () -> MazeParser.parse(Arrays.asList(lines)));
+        assertTrue(error.getMessage().contains(message), error.getMessage());
+    }
+
+    private static void assertSameMaze(Maze expected, Maze actual, String where) {
+        assertEquals(expected.height(), actual.height(), where);
+        assertEquals(expected.width(), actual.width(), where);
+        assertEquals(expected.startIndex(), actual.startIndex(), where);
+        assertEquals(expected.goalIndex(), actual.goalIndex(), where);
+        for (int index = 0; index < expected.cellCount(); index++) {
+            assertEquals(expected.isWall(index), actual.isWall(index), where + " wall " + index);
+            assertEquals(expected.cost(index), actual.cost(index), where + " cost " + index);
+            assertEquals(expected.directions(index), actual.directions(index), where + " directions " + index);
+        }
+    }
+}
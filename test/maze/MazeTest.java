@@ -0,0 +1,90 @@
+package maze;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MazeTest {
+    private static Maze small() {
+        return new Maze(new ArrayList<>(Arrays.asList(
+                "######",
+                "#S\"3\"#\"12\"#",
+                "#\"1\"\"300\"\"2\"G#",
+                "######")));
+    }
+
+    // the packed grid answers what the text says, cell by cell
+    @Test
+    void readsCellsBackFromThePackedGrid() {
+        Maze maze = small();
+        assertEquals(4, maze.height());
+        assertEquals(6, maze.width());
+        assertEquals(maze.index(1, 1), maze.startIndex());
+        assertEquals(maze.index(2, 4), maze.goalIndex());
+
+        assertEquals(CellType.WALL, maze.cellType(maze.index(0, 3)));
+        assertEquals(CellType.WALL, maze.cellType(maze.index(1, 3)));
+        assertEquals(CellType.START, maze.cellType(maze.startIndex()));
+        assertEquals(CellType.GOAL, maze.cellType(maze.goalIndex()));
+        assertEquals(3, maze.cost(1, 2));
+        assertEquals(12, maze.cost(1, 4));
+        assertEquals(300, maze.cost(2, 2));
+        assertEquals(0, maze.cost(maze.startIndex()));
+        assertEquals(300, maze.maxCost());
+        assertEquals(1, maze.minCost());
+        assertEquals(CellType.NUMBER, maze.get(1, 4).type);
+        assertEquals(12, maze.get(1, 4).value);
+    }
+
+    @Test
+    void directionsPointAtOpenNeighbours() {
+        Maze maze = small();
+        for (int index = 0; index < maze.cellCount(); index++) {
+            assertEquals(expectedDirections(maze, index), maze.directions(index), "cell " + index);
+        }
+        assertEquals(Maze.DOWN | Maze.RIGHT, maze.directions(maze.startIndex()));
+        assertEquals(Maze.UP | Maze.LEFT, maze.directions(maze.goalIndex()));
+    }
+
+    // an edit changes the cell, its neighbours' directions and the edit count
+    @Test
+    void editsKeepDirectionsCurrent() {
+        Maze maze = small();
+        int cell = maze.index(2, 2);
+        maze.setWall(cell);
+        assertTrue(maze.isWall(cell));
+        assertEquals(0, maze.cost(cell));
+        assertEquals(1, maze.editCount());
+        assertEquals(0, maze.directions(maze.index(1, 2)) & Maze.DOWN);
+        assertEquals(0, maze.directions(maze.index(2, 1)) & Maze.RIGHT);
+
+        maze.setOpen(cell, 7);
+        assertFalse(maze.isWall(cell));
+        assertEquals(7, maze.cost(cell));
+        assertTrue(maze.editCount() > 1);
+        for (int index = 0; index < maze.cellCount(); index++) {
+            assertEquals(expectedDirections(maze, index), maze.directions(index), "cell " + index);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> maze.setCost(maze.startIndex(), 1));
+        assertThrows(IllegalArgumentException.class, () -> maze.setCost(maze.index(1, 3), 1));
+        assertThrows(IllegalArgumentException.class, () -> maze.setCost(cell, Character.MAX_VALUE + 1));
+    }
+
+    private static int expectedDirections(Maze maze, int index) {
+        int r = maze.row(index), c = maze.col(index);
+        int expected = 0;
+        if (r > 0 && !maze.isWall(r - 1, c))
+            expected |= Maze.UP;
+        if (r < maze.height() - 1 && !maze.isWall(r + 1, c))
+            expected |= Maze.DOWN;
+        if (c > 0 && !maze.isWall(r, c - 1))
+            expected |= Maze.LEFT;
+        if (c < maze.width() - 1 && !maze.isWall(r, c + 1))
+            expected |= Maze.RIGHT;
+        return expected;
+    }
+}
@@ -0,0 +1,45 @@
+package pathfinder;
+
+import maze.Maze;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Dijkstra on buckets must cost exactly what Dijkstra on the heap costs,
+// with a path that really costs that much.
+class BucketDijkstraAnimatorWrapperTest {
+    private static final int RANDOM_MAZES = 3000;
+
+    static List<Path> maps() throws IOException {
+        return TestMazes.maps();
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void costsWhatTheHeapCostsOnTheShippedMaps(Path map) throws IOException {
+        check(Maze.load(map), map.toString());
+    }
+
+    // costs far apart put neighbours many buckets behind each other
+    @Test
+    void costsWhatTheHeapCostsOnRandomMazes() {
+        for (int seed = 0; seed < RANDOM_MAZES; seed++) {
+            Random random = new Random(seed);
+            check(TestMazes.random(random, 1 + random.nextInt(20), 1 + random.nextInt(40)), "random maze " + seed);
+        }
+    }
+
+    private static void check(Maze maze, String where) {
+        int expected = TestMazes.solve(new DijkstraAnimatorWrapper(maze)).getTotalCost();
+        BucketDijkstraAnimatorWrapper buckets = TestMazes.solve(new BucketDijkstraAnimatorWrapper(maze));
+        assertEquals(expected, buckets.getTotalCost(), where);
+        TestMazes.assertPath(maze, buckets.getPath(), buckets.getTotalCost(), where);
+    }
+}
@@ -0,0 +1,76 @@
+package pathfinder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The bucket queue used the way Dijkstra uses it: every push lies between
+// the last polled priority and that plus maxStep.
+class BucketQueueTest {
+    private static final int KEYS = 64;
+    private static final int MAX_STEP = 9;
+
+    // the queue runs empty after polling 24, then 33 goes in before 29
+    @Test
+    void lowerPushAfterTheQueueRanEmptyComesOutFirst() {
+        BucketQueue queue = new BucketQueue(KEYS, MAX_STEP);
+        queue.insertOrDecrease(1, 24);
+        assertEquals(1, queue.poll());
+        queue.insertOrDecrease(12, 33);
+        queue.insertOrDecrease(9, 29);
+        assertEquals(9, queue.poll());
+        assertEquals(12, queue.poll());
+    }
+
+    @Test
+    void equalPrioritiesComeOutInTheOrderTheyWentIn() {
+        BucketQueue queue = new BucketQueue(KEYS, MAX_STEP);
+        int[] keys = { 5, 3, 8, 1, 7 };
+        for (int key : keys) {
+            queue.insertOrDecrease(key, 4);
+        }
+        queue.insertOrDecrease(8, 4);       // not lower, stays where it is
+        queue.insertOrDecrease(2, 6);
+        queue.insertOrDecrease(2, 4);       // lowered, goes in last
+        for (int key : keys) {
+            assertEquals(key, queue.poll());
+        }
+        assertEquals(2, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    // a polled key has the lowest priority queued, ties may go either way
+    @Test
+    void pollsTheLowestPriorityQueued() {
+        for (int seed = 0; seed < 2000; seed++) {
+            Random random = new Random(seed);
+            BucketQueue queue = new BucketQueue(KEYS, MAX_STEP);
+            int[] priority = new int[KEYS];
+            boolean[] queued = new boolean[KEYS];
+            int floor = random.nextInt(100);
+            for (int op = 0; op < 200; op++) {
+                if (!queue.isEmpty() && random.nextInt(3) == 0) {
+                    int lowest = Integer.MAX_VALUE;
+                    for (int key = 0; key < KEYS; key++) {
+                        if (queued[key])
+                            lowest = Math.min(lowest, priority[key]);
+                    }
+                    int key = queue.poll();
+                    assertTrue(queued[key], "seed " + seed + " op " + op);
+                    assertEquals(lowest, priority[key], "seed " + seed + " op " + op);
+                    queued[key] = false;
+                    floor = lowest;
+                } else {
+                    int key = random.nextInt(KEYS);
+                    int p = floor + random.nextInt(MAX_STEP + 1);
+                    if (!queued[key] || p < priority[key])
+                        priority[key] = p;
+                    queued[key] = true;
+                    queue.insertOrDecrease(key, p);
+                }
+            }
+        }
+    }
+}
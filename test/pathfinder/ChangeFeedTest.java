@@ -0,0 +1,69 @@
+package pathfinder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+    @Test
+    void readersGetWhatCameAfterTheirLastPoll() {
+        ChangeFeed feed = new ChangeFeed();
+        ChangeFeed.Reader fast = feed.reader();
+        ChangeFeed.Reader slow = feed.reader();
+        feed.opened(4);
+        feed.closed(4);
+        ChangeFeed.Changes changes = fast.poll();
+        assertArrayEquals(new int[] { 4 }, changes.opened);
+        assertArrayEquals(new int[] { 4 }, changes.closed);
+
+        feed.opened(9);
+        feed.pathed(4);
+        changes = fast.poll();
+        assertArrayEquals(new int[] { 9 }, changes.opened);
+        assertArrayEquals(new int[0], changes.closed);
+        assertArrayEquals(new int[] { 4 }, changes.pathed);
+
+        changes = slow.poll();
+        assertArrayEquals(new int[] { 4, 9 }, changes.opened);
+        assertArrayEquals(new int[] { 4 }, changes.closed);
+        assertArrayEquals(new int[] { 4 }, changes.pathed);
+        assertEquals(feed.version(), changes.version);
+    }
+
+    // a reader that missed changes reads the sets once, then follows the feed
+    @Test
+    void lateReaderReadsTheSetsFirst() {
+        ChangeFeed feed = new ChangeFeed();
+        feed.opened(1);
+        ChangeFeed.Reader late = feed.reader();
+        assertNull(late.poll());
+        feed.closed(1);
+        assertArrayEquals(new int[] { 1 }, late.poll().closed);
+    }
+
+    // the log keeps what the slowest open reader has not read, nothing once
+    // it is closed
+    @Test
+    void logHoldsOnlyUnreadChanges() {
+        ChangeFeed feed = new ChangeFeed();
+        ChangeFeed.Reader reader = feed.reader();
+        ChangeFeed.Reader idle = feed.reader();
+        for (int i = 0; i < 10_000; i++) {
+            feed.opened(i);
+            reader.poll();
+        }
+        assertEquals(10_000, feed.logged());
+
+        idle.close();
+        feed.opened(0);
+        reader.poll();
+        assertEquals(0, feed.logged());
+
+        reader.close();
+        for (int i = 0; i < 10_000; i++) {
+            feed.opened(i);
+        }
+        assertTrue(feed.logged() <= 256, "log kept " + feed.logged() + " changes with no readers");
+        assertEquals(20_001, feed.version());
+    }
+}
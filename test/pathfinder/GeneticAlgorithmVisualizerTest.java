@@ -0,0 +1,48 @@
+package pathfinder;
+
+import maze.Maze;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneticAlgorithmVisualizerTest {
+    private static final int GENERATIONS = 60;
+
+    // still many score chunks, a tenth of the default to keep the test short
+    private static GAConfig config() {
+        GAConfig config = new GAConfig();
+        config.set("population", "600");
+        return config;
+    }
+
+    // scoring in chunks on the shared pool gives the same generations as
+    // scoring on the calling thread: same seed, same best fitness every
+    // generation and the same path at the end
+    @Test
+    void parallelScoringMatchesSerial() throws IOException {
+        for (Path map : TestMazes.maps()) {
+            Maze maze = Maze.load(map);
+            if (maze.cellCount() > 60 * 60)
+                continue;
+            for (long seed = 1; seed <= 2; seed++) {
+                String where = map.getFileName() + " seed " + seed;
+                GeneticAlgorithmVisualizer serial = new GeneticAlgorithmVisualizer(maze, seed, 1, config());
+                GeneticAlgorithmVisualizer parallel = new GeneticAlgorithmVisualizer(maze, seed, 4, config());
+                serial.setLogging(false);
+                parallel.setLogging(false);
+                for (int generation = 0; generation < GENERATIONS && !serial.isFinished(); generation++) {
+                    serial.nextStep();
+                    parallel.nextStep();
+                    assertEquals(serial.bestFitness(), parallel.bestFitness(), where + " generation " + generation);
+                    assertEquals(serial.isFinished(), parallel.isFinished(), where + " generation " + generation);
+                }
+                assertEquals(serial.getTotalCost(), parallel.getTotalCost(), where);
+                assertEquals(serial.getPath(), parallel.getPath(), where);
+                assertEquals(serial.getExpandedCount(), parallel.getExpandedCount(), where);
+            }
+        }
+    }
+}
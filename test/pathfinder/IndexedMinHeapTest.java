@@ -0,0 +1,96 @@
+package pathfinder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedMinHeapTest {
+    private static final int KEYS = 64;
+
+    // lowering a queued key moves it ahead, raising it changes nothing
+    @Test
+    void decreaseKeyReordersInPlace() {
+        IndexedMinHeap heap = new IndexedMinHeap(KEYS);
+        heap.insertOrDecrease(1, 10);
+        heap.insertOrDecrease(2, 20);
+        heap.insertOrDecrease(3, 30);
+        heap.insertOrDecrease(4, 40);
+
+        heap.insertOrDecrease(4, 5);
+        heap.insertOrDecrease(1, 25);
+        heap.insertOrDecrease(3, 15);
+        assertEquals(4, heap.size());
+        assertEquals(5, heap.priority(4));
+        assertEquals(10, heap.priority(1));
+
+        assertEquals(4, heap.peek());
+        assertEquals(4, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertFalse(heap.contains(3));
+        assertTrue(heap.contains(2));
+        assertEquals(2, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void clearForgetsEveryKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(KEYS);
+        for (int key = 0; key < KEYS; key += 3) {
+            heap.insertOrDecrease(key, KEYS - key);
+        }
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        for (int key = 0; key < KEYS; key++) {
+            assertFalse(heap.contains(key));
+        }
+        heap.insertOrDecrease(7, 3);
+        assertEquals(7, heap.poll());
+    }
+
+    // a polled key has the lowest priority queued, any pushes and lowers in between
+    @Test
+    void pollsTheLowestPriorityQueued() {
+        for (int seed = 0; seed < 2000; seed++) {
+            Random random = new Random(seed);
+            IndexedMinHeap heap = new IndexedMinHeap(KEYS);
+            int[] priority = new int[KEYS];
+            boolean[] queued = new boolean[KEYS];
+            int count = 0;
+            for (int op = 0; op < 200; op++) {
+                String where = "seed " + seed + " op " + op;
+                if (count > 0 && random.nextInt(3) == 0) {
+                    int lowest = Integer.MAX_VALUE;
+                    for (int key = 0; key < KEYS; key++) {
+                        if (queued[key])
+                            lowest = Math.min(lowest, priority[key]);
+                    }
+                    int key = heap.poll();
+                    assertTrue(queued[key], where);
+                    assertEquals(lowest, priority[key], where);
+                    queued[key] = false;
+                    count--;
+                } else {
+                    int key = random.nextInt(KEYS);
+                    int p = random.nextInt(1000);
+                    if (!queued[key]) {
+                        priority[key] = p;
+                        queued[key] = true;
+                        count++;
+                    } else if (p < priority[key]) {
+                        priority[key] = p;
+                    }
+                    heap.insertOrDecrease(key, p);
+                }
+                assertEquals(count, heap.size(), where);
+                for (int key = 0; key < KEYS; key++) {
+                    assertEquals(queued[key], heap.contains(key), where);
+                    if (queued[key])
+                        assertEquals(priority[key], heap.priority(key), where);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package pathfinder;
+
+import maze.Maze;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Random edit sequences on the shipped maps: after every batch of edits the
+// repaired LPA* search must cost what a fresh Dijkstra on the edited maze
+// costs, and its path must be a real path of that cost.
+class LpaStarAnimatorWrapperTest {
+    private static final int ROUNDS = 60;
+    private static final int MAX_EDIT_COST = 9;
+    private static final int SMALL_MAZES = 3000;
+
+    static List<Path> maps() throws IOException {
+        return TestMazes.maps();
+    }
+
+    @ParameterizedTest
+    @MethodSource("maps")
+    void replanMatchesDijkstraAfterRandomEdits(Path map) throws IOException {
+        editAndCheck(map, Maze.load(map));
+    }
+
+    // The shipped maps already cost 1 at the cheapest, so raise them all and
+    // let edits undercut the cheapest cost, which rekeys the queue.
+    @ParameterizedTest
+    @MethodSource("maps")
+    void replanMatchesDijkstraWhenEditsLowerTheCheapestCost(Path map) throws IOException {
+        Maze maze = Maze.load(map);
+        for (int index = 0; index < maze.cellCount(); index++) {
+            if (!maze.isWall(index) && index != maze.startIndex() && index != maze.goalIndex())
+                maze.setCost(index, maze.cost(index) + MAX_EDIT_COST);
+        }
+        editAndCheck(map, maze);
+    }
+
+    // Small mazes reach the rare orders of edits and steps, like an edit
+    // that lowers the cheapest cost while stale keys are still queued.
+    @Test
+    void replanMatchesDijkstraOnSmallRandomMazes() {
+        for (int seed = 0; seed < SMALL_MAZES; seed++) {
+            Random random = new Random(seed);
+            editAndCheck("small maze " + seed, TestMazes.random(random, 1 + random.nextInt(10), MAX_EDIT_COST), random);
+        }
+    }
+
+    // The upper route costs 3 and the lower one 5. Then the lower one drops
+    // to 3 and the upper one goes up, so the goal keeps its cost while the
+    // upper cells still hold g values from the first round: the path must
+    // follow the lower route.
+    @Test
+    void pathMovesToTheOtherRouteAtTheSameCost() {
+        Maze maze = new Maze(new ArrayList<>(List.of(
+                "#####",
+                "#S\"1\"\"1\"#",
+                "#\"1\"#\"1\"#",
+                "#\"1\"\"3\"G#",
+                "#####")));
+        LpaStarAnimatorWrapper lpa = new LpaStarAnimatorWrapper(maze);
+        check(maze, lpa, "before the edits");
+        lpa.setCost(maze.index(3, 2), 1);
+        lpa.setCost(maze.index(1, 2), 5);
+        check(maze, lpa, "after the edits");
+    }
+
+    private static void editAndCheck(Path map, Maze maze) {
+        editAndCheck(map.toString(), maze, new Random(map.getFileName().toString().hashCode()));
+    }
+
+    private static void editAndCheck(String map, Maze maze, Random random) {
+        LpaStarAnimatorWrapper lpa = new LpaStarAnimatorWrapper(maze);
+        check(maze, lpa, map + " before any edit");
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            // edits also come in halfway through a round, with a full queue
+            if (random.nextBoolean()) {
+                int steps = random.nextInt(4 * maze.width());
+                for (int i = 0; i < steps && !lpa.isFinished(); i++) {
+                    lpa.nextStep();
+                }
+            }
+            int edits = 1 + random.nextInt(4);
+            for (int i = 0; i < edits; i++) {
+                edit(maze, lpa, random);
+            }
+            check(maze, lpa, map + " round " + round);
+        }
+    }
+
+    // half the edits land on or next to the current path, where they matter
+    private static void edit(Maze maze, LpaStarAnimatorWrapper lpa, Random random) {
+        int index;
+        do {
+            index = random.nextBoolean() ? nearPath(maze, lpa.getPath(), random) : random.nextInt(maze.cellCount());
+        } while (index < 0 || index == maze.startIndex() || index == maze.goalIndex());
+
+        int cost = 1 + random.nextInt(MAX_EDIT_COST);
+        if (maze.isWall(index))
+            lpa.setOpen(index, cost);
+        else if (random.nextInt(4) == 0)
+            lpa.setWall(index);
+        else
+            lpa.setCost(index, cost);
+    }
+
+    private static int nearPath(Maze maze, List<Point> path, Random random) {
+        if (path.isEmpty())
+            return -1;
+        Point p = path.get(random.nextInt(path.size()));
+        int r = p.x + random.nextInt(3) - 1;
+        int c = p.y + random.nextInt(3) - 1;
+        if (r < 0 || r >= maze.height() || c < 0 || c >= maze.width())
+            return -1;
+        return maze.index(r, c);
+    }
+
+    private static void check(Maze maze, LpaStarAnimatorWrapper lpa, String where) {
+        int cost = lpa.replan();
+        assertTrue(lpa.isFinished(), where);
+        assertEquals(TestMazes.solve(new DijkstraAnimatorWrapper(maze)).getTotalCost(), cost, where);
+        TestMazes.assertPath(maze, lpa.getPath(), cost, where);
+    }
+}
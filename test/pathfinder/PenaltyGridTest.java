@@ -0,0 +1,66 @@
+package pathfinder;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PenaltyGridTest {
+    private static final int ROWS = 40, COLS = 50;
+    private static final int THREADS = 4;
+
+    // threads add to overlapping cells at once; once they have joined
+    // every cell is listed exactly once and every add counted
+    @Test
+    void listsEveryCellOnceAfterConcurrentAdds() throws InterruptedException {
+        PenaltyGrid grid = new PenaltyGrid(ROWS, COLS);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int r = 0; r < ROWS; r++) {
+                    for (int c = (r % 2); c < COLS; c += 2) {
+                        grid.add(r, c, (r + c) % 4, 1.0);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Point> cells = new HashSet<>();
+        for (Point p : grid.cells()) {
+            assertTrue(cells.add(p), "listed twice: " + p);
+            assertEquals(0, (p.x + p.y) % 2, "never added: " + p);
+            assertEquals(THREADS, grid.get(p.x, p.y, (p.x + p.y) % 4));
+        }
+        assertEquals(ROWS * COLS / 2, cells.size());
+        assertEquals(cells.size(), grid.cells().size());
+    }
+
+    @Test
+    void clearResetsTheListedCells() {
+        PenaltyGrid grid = new PenaltyGrid(ROWS, COLS);
+        grid.add(3, 4, 2, 5.0);
+        grid.add(7, 1, 0, 2.0);
+        grid.clear();
+        assertEquals(0, grid.cells().size());
+        assertEquals(0.0, grid.get(3, 4, 2));
+        assertFalse(grid.cells().contains(new Point(7, 1)));
+        grid.add(7, 1, 0, 1.0);
+        assertEquals(1, grid.cells().size());
+        assertEquals(1.0, grid.get(7, 1, 0));
+    }
+}
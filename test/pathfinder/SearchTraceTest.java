@@ -0,0 +1,149 @@
+package pathfinder;
+
+import maze.Maze;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTraceTest {
+    private static final String[] ENGINES = { "dijkstra", "astar", "bidijkstra", "greedy", "lpa" };
+
+    @TempDir
+    Path dir;
+
+    // what the solver showed at every step, read from its sets while it ran
+    private static final class Run {
+        final List<byte[]> states = new ArrayList<>();
+        final List<Integer> totalCost = new ArrayList<>();
+        final List<Integer> expanded = new ArrayList<>();
+        final List<Boolean> finished = new ArrayList<>();
+
+        void add(Maze maze, AnimatablePathfinder solver) {
+            byte[] step = new byte[maze.cellCount()];
+            mark(maze, step, solver.getOpenSet(), CellStates.OPEN);
+            mark(maze, step, solver.getClosedSet(), CellStates.CLOSED);
+            mark(maze, step, solver.getPath(), CellStates.PATH);
+            states.add(step);
+            totalCost.add(solver.getTotalCost());
+            expanded.add(solver.getExpandedCount());
+            finished.add(solver.isFinished());
+        }
+
+        private static void mark(Maze maze, byte[] step, Iterable<Point> cells, byte state) {
+            for (Point p : cells) {
+                step[maze.index(p.x, p.y)] = state;
+            }
+        }
+    }
+
+    private Run record(Maze maze, String engine, Path file) throws IOException {
+        AnimatablePathfinder solver = Pathfinders.create(engine, maze);
+        Run run = new Run();
+        try (SearchTrace.Recorder recorder = new SearchTrace.Recorder(maze, solver, file)) {
+            run.add(maze, solver);
+            while (!solver.isFinished()) {
+                recorder.step();
+                run.add(maze, solver);
+            }
+        }
+        return run;
+    }
+
+    // random seeks, near and far, forward and back, land on what the solver
+    // showed at that step, and the cells a seek lists are all a caller
+    // needs to follow along
+    @Test
+    void seekingMatchesTheRecordedRun() throws IOException {
+        for (Path map : TestMazes.maps()) {
+            Maze maze = Maze.load(map);
+            if (maze.cellCount() > 50 * 50)
+                continue;
+            for (String engine : ENGINES) {
+                String where = map.getFileName() + " " + engine;
+                Path file = dir.resolve(engine + SearchTrace.EXTENSION);
+                Run run = record(maze, engine, file);
+                SearchTrace trace = SearchTrace.load(file, maze);
+                int last = run.states.size() - 1;
+                assertEquals(last, trace.steps(), where);
+
+                SearchTrace.Cursor cursor = trace.cursor();
+                byte[] shadow = new byte[maze.cellCount()];
+                Random random = new Random(map.getFileName().hashCode());
+                for (int i = 0; i < 1000; i++) {
+                    int target = random.nextInt(4) == 0 ? random.nextInt(last + 1)
+                            : Math.max(0, Math.min(last, cursor.step() + random.nextInt(80) - 20));
+                    cursor.seek(target);
+                    if (cursor.reloaded()) {
+                        for (int index = 0; index < shadow.length; index++) {
+                            shadow[index] = cursor.state(index);
+                        }
+                    } else {
+                        for (int k = 0; k < cursor.changedCount(); k++) {
+                            shadow[cursor.changed(k)] = cursor.state(cursor.changed(k));
+                        }
+                    }
+
+                    String at = where + " step " + target;
+                    assertEquals(target, cursor.step(), at);
+                    byte[] expected = run.states.get(target);
+                    int open = 0, closed = 0;
+                    for (int index = 0; index < expected.length; index++) {
+                        assertEquals(expected[index], cursor.state(index), at + " cell " + index);
+                        assertEquals(expected[index], shadow[index], at + " followed cell " + index);
+                        open += expected[index] == CellStates.OPEN ? 1 : 0;
+                        closed += expected[index] == CellStates.CLOSED ? 1 : 0;
+                    }
+                    assertEquals(open, cursor.openCount(), at);
+                    assertEquals(closed, cursor.closedCount(), at);
+                    assertEquals((int) run.totalCost.get(target), trace.totalCost(target), at);
+                    assertEquals((int) run.expanded.get(target), trace.expanded(target), at);
+                    assertEquals(run.finished.get(target), trace.isFinished(target), at);
+                }
+            }
+        }
+    }
+
+    // a recording cut off mid record loads up to its last whole one
+    @Test
+    void loadsATruncatedTraceUpToItsLastRecord() throws IOException {
+        Maze maze = Maze.load(TestMazes.maps().get(0));
+        Path file = dir.resolve("cut" + SearchTrace.EXTENSION);
+        Run run = record(maze, "dijkstra", file);
+
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 1));
+        SearchTrace trace = SearchTrace.load(file, maze);
+        assertTrue(trace.steps() < run.states.size() - 1);
+        assertTrue(trace.steps() > 0);
+        SearchTrace.Cursor cursor = trace.cursor();
+        cursor.seek(trace.steps());
+        assertArrayEquals(run.states.get(trace.steps()), states(cursor));
+    }
+
+    @Test
+    void rejectsATraceOfAnotherMaze() throws IOException {
+        List<Path> maps = TestMazes.maps();
+        Path file = dir.resolve("other" + SearchTrace.EXTENSION);
+        record(Maze.load(maps.get(0)), "astar", file);
+        IOException error = assertThrows(IOException.class, () -> SearchTrace.load(file, Maze.load(maps.get(1))));
+        assertEquals("recorded on a different maze", error.getMessage());
+    }
+
+    private static byte[] states(SearchTrace.Cursor cursor) {
+        byte[] states = new byte[cursor.cellCount()];
+        for (int index = 0; index < states.length; index++) {
+            states[index] = cursor.state(index);
+        }
+        return states;
+    }
+}
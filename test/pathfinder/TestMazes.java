@@ -0,0 +1,89 @@
+package pathfinder;
+
+import maze.Maze;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mazes and checks the engine tests share.
+final class TestMazes {
+    private TestMazes() {
+    }
+
+    // the shipped maps, maps.dir is set by the build
+    static List<Path> maps() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("maps.dir", "src/map")))) {
+            return files.filter(f -> f.toString().endsWith(".txt")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    // rows and cols 4 .. 13 inside a wall border, a fifth of the cells
+    // walls and the rest costing cheapest .. cheapest + spread - 1
+    static Maze random(Random random, int cheapest, int spread) {
+        int rows = 4 + random.nextInt(10);
+        int cols = 4 + random.nextInt(10);
+        int start = random.nextInt(rows * cols);
+        int goal;
+        do {
+            goal = random.nextInt(rows * cols);
+        } while (goal == start);
+
+        ArrayList<String> lines = new ArrayList<>();
+        String border = "#".repeat(cols + 2);
+        lines.add(border);
+        for (int r = 0; r < rows; r++) {
+            StringBuilder line = new StringBuilder("#");
+            for (int c = 0; c < cols; c++) {
+                int index = r * cols + c;
+                if (index == start)
+                    line.append('S');
+                else if (index == goal)
+                    line.append('G');
+                else if (random.nextInt(5) == 0)
+                    line.append('#');
+                else
+                    line.append('"').append(cheapest + random.nextInt(spread)).append('"');
+            }
+            lines.add(line.append('#').toString());
+        }
+        lines.add(border);
+        return new Maze(lines);
+    }
+
+    static <T extends AnimatablePathfinder> T solve(T solver) {
+        while (!solver.isFinished()) {
+            solver.nextStep();
+        }
+        return solver;
+    }
+
+    // a path from start to goal through open cells, one step at a time,
+    // whose cells cost the given total; empty when there is none
+    static void assertPath(Maze maze, List<Point> path, int cost, String where) {
+        if (cost < 0) {
+            assertTrue(path.isEmpty(), where);
+            return;
+        }
+        assertEquals(maze.getStart(), path.get(0), where);
+        assertEquals(maze.getGoal(), path.get(path.size() - 1), where);
+        int walked = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Point from = path.get(i - 1), to = path.get(i);
+            assertEquals(1, Math.abs(from.x - to.x) + Math.abs(from.y - to.y), where + " path step " + i);
+            int index = maze.index(to.x, to.y);
+            assertFalse(maze.isWall(index), where + " path through a wall");
+            walked += maze.cost(index);
+        }
+        assertEquals(cost, walked, where + " path cost");
+    }
+}